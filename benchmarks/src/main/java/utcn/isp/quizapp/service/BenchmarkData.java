@@ -0,0 +1,66 @@
+package utcn.isp.quizapp.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generated inputs; the repository ships no question bank and benchmarks should not depend on one.
+ */
+final class BenchmarkData {
+
+    private static final String[] CATEGORIES = {"Threads", "Scheduling", "Memory", "Networking"};
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @return {@code count} question blocks in the text format, every other one with a metadata line
+     */
+    static String questionText(int count) {
+        StringBuilder text = new StringBuilder(count * 96);
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                text.append("@category=").append(CATEGORIES[i % CATEGORIES.length])
+                        .append("; difficulty=").append(DIFFICULTIES[i % DIFFICULTIES.length])
+                        .append("; tags=benchmark, q").append(i % 10).append('\n');
+            }
+            text.append("What does question number ").append(i).append(" ask about?\n");
+            for (char option = 'A'; option <= 'D'; option++) {
+                text.append("Option ").append(option).append(" of question ").append(i).append('\n');
+            }
+            text.append((char) ('A' + i % 4)).append("\n\n");
+        }
+        return text.toString();
+    }
+
+    static Path writeQuestionFile(int count) throws IOException {
+        Path file = Files.createTempFile("benchmark-questions", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, questionText(count), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * @return a leaderboard save file with {@code users} entries named {@code user<i>}
+     */
+    static Path writeLeaderboardFile(Path directory, int users) throws IOException {
+        Path file = directory.resolve("leaderboard.txt");
+        StringBuilder text = new StringBuilder(users * 16);
+        for (int i = 0; i < users; i++) {
+            text.append("user").append(i).append(':').append(i % 50).append('\n');
+        }
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
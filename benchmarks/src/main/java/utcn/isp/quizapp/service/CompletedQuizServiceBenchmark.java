@@ -0,0 +1,72 @@
+package utcn.isp.quizapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import utcn.isp.quizapp.model.CompletedQuiz;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording completed games and reading the totals and recent results the dashboard shows, in memory
+ * (no results log) and without dashboard subscribers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompletedQuizServiceBenchmark {
+
+    private CompletedQuizService service;
+    private final CompletedQuiz quiz = new CompletedQuiz("player", 7, 10, 9, 48);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new CompletedQuizService(new DashboardEventsService(new ObjectMapper()), "", 1000, 0);
+        service.loadHistory();
+        for (int i = 0; i < 1000; i++) {
+            service.addCompletedQuiz(quiz);
+        }
+    }
+
+    @Benchmark
+    public void addCompletedQuiz() {
+        service.addCompletedQuiz(quiz);
+    }
+
+    // A burst of games finishing together
+    @Benchmark
+    @Threads(4)
+    public void addCompletedQuizContended() {
+        service.addCompletedQuiz(quiz);
+    }
+
+    @Benchmark
+    public Map<String, Object> describeAggregates() {
+        return service.describeAggregates();
+    }
+
+    @Benchmark
+    public double averageAccuracy() {
+        return service.getAverageAccuracyPercentage();
+    }
+
+    @Benchmark
+    public List<CompletedQuiz> recentResults() {
+        return service.getCompletedQuizzes();
+    }
+}
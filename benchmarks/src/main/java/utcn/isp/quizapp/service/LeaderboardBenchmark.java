@@ -0,0 +1,93 @@
+package utcn.isp.quizapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utcn.isp.quizapp.model.LeaderboardPage;
+import utcn.isp.quizapp.model.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The leaderboard with 1k to 1M users and the journal enabled, as in production (the journal writer
+ * runs in the background; a full queue shows up as slower new-best scores).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int users;
+
+    private Path directory;
+    private Leaderboard leaderboard;
+    private int nextScore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("benchmark-leaderboard");
+        Path saveFile = BenchmarkData.writeLeaderboardFile(directory, users);
+        leaderboard = new Leaderboard("none", saveFile.toString(), true, 3600, 10000, 1000, new SimpleMeterRegistry());
+        leaderboard.initializeLeaderboard();
+        nextScore = 100; // Above every seeded score, so each call below is a new best
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        leaderboard.shutdown();
+        BenchmarkData.deleteRecursively(directory);
+    }
+
+    private String randomUser() {
+        return "user" + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    // The common case: a game that does not beat the player's best
+    @Benchmark
+    public void addScoreNotBest() {
+        leaderboard.addScore(randomUser(), 0);
+    }
+
+    @Benchmark
+    public void addScoreNewBest() {
+        leaderboard.addScore(randomUser(), nextScore++);
+    }
+
+    @Benchmark
+    public List<User> getAllScoresSorted() {
+        return leaderboard.getAllScoresSorted();
+    }
+
+    // What the first leaderboard view after a finished game pays
+    @Benchmark
+    public List<User> addScoreThenSorted() {
+        leaderboard.addScore(randomUser(), nextScore++);
+        return leaderboard.getAllScoresSorted();
+    }
+
+    @Benchmark
+    public LeaderboardPage addScoreThenFirstPage() {
+        leaderboard.addScore(randomUser(), nextScore++);
+        return leaderboard.getPage(1, 25);
+    }
+}
@@ -0,0 +1,59 @@
+package utcn.isp.quizapp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utcn.isp.quizapp.model.QuestionLoadReport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a question bank: streaming from a reader, as for the classpath file, and loading a file,
+ * which is split into chunks parsed in parallel above 1 MB (50k questions is about 5 MB).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuestionLoaderBenchmark {
+
+    @Param({"1000", "50000"})
+    public int questions;
+
+    private String text;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        text = BenchmarkData.questionText(questions);
+        file = BenchmarkData.writeQuestionFile(questions);
+    }
+
+    @Benchmark
+    public void streamQuestions(Blackhole blackhole) throws IOException {
+        QuestionLoadReport report = QuestionLoader.streamQuestions(
+                new BufferedReader(new StringReader(text)), "benchmark", blackhole::consume);
+        blackhole.consume(report);
+    }
+
+    @Benchmark
+    public QuestionLoader.LoadResult loadFromFile() throws IOException {
+        return QuestionLoader.loadFromFile(file);
+    }
+}
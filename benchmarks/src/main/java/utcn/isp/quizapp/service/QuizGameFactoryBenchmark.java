@@ -0,0 +1,63 @@
+package utcn.isp.quizapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utcn.isp.quizapp.model.QuizGame;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dealing a new game ({@link QuizSessionService#startNewGame} minus the session bookkeeping): drawing
+ * 10 question ids and an option order per question, from the whole bank, from one category, and as a
+ * per-difficulty mix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuizGameFactoryBenchmark {
+
+    @Param({"200", "100000"})
+    public int bankSize;
+
+    private QuizGameFactory uniform;
+    private QuizGameFactory mixed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        QuestionBank questionBank = new QuestionBank("none", BenchmarkData.writeQuestionFile(bankSize).toString(),
+                new SimpleMeterRegistry());
+        questionBank.loadQuestions();
+        uniform = new QuizGameFactory(questionBank, 10, "", "");
+        mixed = new QuizGameFactory(questionBank, -1, "easy:3,medium:5,hard:2", "");
+    }
+
+    @Benchmark
+    public QuizGame wholeBank() {
+        return uniform.newGame("player");
+    }
+
+    @Benchmark
+    public QuizGame oneCategory() {
+        return uniform.newGame("player", "Threads");
+    }
+
+    @Benchmark
+    public QuizGame difficultyMix() {
+        return mixed.newGame("player");
+    }
+}
@@ -0,0 +1,51 @@
+package utcn.isp.quizapp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.ShuffledQuestion;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shuffling the options of a question: drawing an order code, and rendering the shuffled view the way
+ * the quiz page does (text, every option, then checking an answer).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShuffledQuestionBenchmark {
+
+    private final Question question = new Question("Which option is correct?",
+            List.of("The first option", "The second option", "The third option", "The fourth option"), 2);
+    private final long order = ShuffledQuestion.randomOrder(4, new Random(42));
+
+    @Benchmark
+    public long randomOrder() {
+        return ShuffledQuestion.randomOrder(4, ThreadLocalRandom.current());
+    }
+
+    @Benchmark
+    public void renderAndAnswer(Blackhole blackhole) {
+        ShuffledQuestion shuffled = new ShuffledQuestion(question, order);
+        blackhole.consume(shuffled.getQuestionText());
+        for (String option : shuffled.getOptions()) {
+            blackhole.consume(option);
+        }
+        blackhole.consume(shuffled.isCorrect(1));
+    }
+}
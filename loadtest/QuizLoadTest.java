@@ -0,0 +1,274 @@
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Plays complete games against a running quiz app through the same pages a browser uses
+ * ({@code POST /start}, then {@code GET /quiz} and {@code POST /submitAnswer} per question, then
+ * {@code GET /gameOver}) and reports throughput and latency percentiles per endpoint.
+ * <p>
+ * Needs only a JDK 21; run it straight from source:
+ * <pre>
+ * java loadtest/QuizLoadTest.java --url http://localhost:8888 --players 500 --ramp-seconds 5 --think-millis 200
+ * </pre>
+ * Each player thinks {@code --think-millis} plus up to {@code --think-jitter-millis} before every answer.
+ * Like the countdown on the quiz page, a player whose timer runs out while thinking goes straight to
+ * {@code /gameOver}; with think times long enough for the timer to expire, players who started together
+ * all land on the game-over page together (see {@code loadtest/classroom-burst.sh}).
+ * <p>
+ * Every player runs on its own virtual thread, so the client is never the bottleneck for a few thousand
+ * players. Each player uses a unique name, so results go to the leaderboard of the app under test.
+ */
+public class QuizLoadTest {
+
+    private static final int MAX_REQUESTS_PER_GAME = 1000; // Guards against a redirect loop
+    private static final Pattern REMAINING_TIME = Pattern.compile("var remainingTime = (\\d+);");
+
+    private final URI baseUri;
+    private final int players;
+    private final long rampMillis;
+    private final long thinkMillis;
+    private final long thinkJitterMillis;
+    private final HttpClient client;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+    private final AtomicInteger completedGames = new AtomicInteger();
+    private final AtomicInteger failedGames = new AtomicInteger();
+    private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> gameOverArrivals = new ConcurrentLinkedQueue<>(); // Milliseconds into the run
+    private final AtomicInteger timedOutGames = new AtomicInteger();
+    private long runStart;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        QuizLoadTest test = new QuizLoadTest(
+                URI.create(options.getOrDefault("url", "http://localhost:8888")),
+                Integer.parseInt(options.getOrDefault("players", "200")),
+                (long) (Double.parseDouble(options.getOrDefault("ramp-seconds", "5")) * 1000),
+                Long.parseLong(options.getOrDefault("think-millis", "0")),
+                Long.parseLong(options.getOrDefault("think-jitter-millis", "0")));
+        test.run();
+    }
+
+    QuizLoadTest(URI baseUri, int players, long rampMillis, long thinkMillis, long thinkJitterMillis) {
+        this.baseUri = baseUri;
+        this.players = players;
+        this.rampMillis = rampMillis;
+        this.thinkMillis = thinkMillis;
+        this.thinkJitterMillis = thinkJitterMillis;
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER) // Redirects are timed as separate requests, like a browser
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    void run() throws InterruptedException {
+        System.out.printf("Target %s, %d players, ramp-up %d ms, think time %d ms (+ up to %d ms)%n",
+                baseUri, players, rampMillis, thinkMillis, thinkJitterMillis);
+        long start = System.nanoTime();
+        runStart = System.currentTimeMillis();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < players; i++) {
+                int player = i;
+                long delay = (players > 1) ? rampMillis * player / (players - 1) : 0;
+                executor.submit(() -> {
+                    try {
+                        Thread.sleep(delay);
+                        playGame(player);
+                        completedGames.incrementAndGet();
+                    } catch (Exception e) {
+                        failedGames.incrementAndGet();
+                        failures.add("player " + player + ": " + e);
+                    }
+                    return null;
+                });
+            }
+        } // Waits for every player
+        report((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private void playGame(int player) throws Exception {
+        String userName = "lt-" + runId + "-" + player;
+        HttpResponse<Void> response = send("start", post("/start", null,
+                "username=" + URLEncoder.encode(userName, StandardCharsets.UTF_8) + "&confirmOverwrite=true"));
+        String cookie = sessionCookie(response);
+        String location = expectRedirect(response);
+        for (int requests = 0; requests < MAX_REQUESTS_PER_GAME; requests++) {
+            if (location.endsWith("/gameOver")) {
+                gameOver(cookie);
+                return;
+            }
+            if (!location.endsWith("/quiz")) {
+                throw new IllegalStateException("Unexpected redirect to " + location);
+            }
+            HttpResponse<String> page = send("quiz", get("/quiz", cookie), HttpResponse.BodyHandlers.ofString());
+            if (page.statusCode() == 302) { // Time ran out
+                location = expectRedirect(page);
+                continue;
+            }
+            expectStatus(page, 200);
+            long think = thinkMillis + ((thinkJitterMillis > 0) ? ThreadLocalRandom.current().nextLong(thinkJitterMillis + 1) : 0);
+            long remainingMillis = remainingSeconds(page) * 1000;
+            if (think >= remainingMillis) { // The page's countdown reaches zero first and opens the game-over page
+                Thread.sleep(remainingMillis);
+                timedOutGames.incrementAndGet();
+                gameOver(cookie);
+                return;
+            }
+            if (think > 0) {
+                Thread.sleep(think);
+            }
+            int answer = ThreadLocalRandom.current().nextInt(4);
+            location = expectRedirect(send("submitAnswer", post("/submitAnswer", cookie, "answer=" + answer)));
+        }
+        throw new IllegalStateException("Game did not end after " + MAX_REQUESTS_PER_GAME + " requests");
+    }
+
+    private void gameOver(String cookie) throws Exception {
+        gameOverArrivals.add(System.currentTimeMillis() - runStart);
+        expectStatus(send("gameOver", get("/gameOver", cookie)), 200);
+    }
+
+    private static long remainingSeconds(HttpResponse<String> quizPage) {
+        Matcher matcher = REMAINING_TIME.matcher(quizPage.body());
+        if (!matcher.find()) {
+            throw new IllegalStateException("No countdown in " + quizPage.uri());
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private HttpRequest get(String path, String cookie) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(60)).GET();
+        if (cookie != null) {
+            builder.header("Cookie", cookie);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest post(String path, String cookie, String form) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+        if (cookie != null) {
+            builder.header("Cookie", cookie);
+        }
+        return builder.build();
+    }
+
+    private HttpResponse<Void> send(String endpoint, HttpRequest request) throws Exception {
+        return send(endpoint, request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private <T> HttpResponse<T> send(String endpoint, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<T> response = client.send(request, bodyHandler);
+        latencies.computeIfAbsent(endpoint, key -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - start);
+        return response;
+    }
+
+    private static String sessionCookie(HttpResponse<?> response) {
+        for (String header : response.headers().allValues("Set-Cookie")) {
+            if (header.startsWith("JSESSIONID=")) {
+                return header.split(";", 2)[0];
+            }
+        }
+        throw new IllegalStateException("No session cookie in response to " + response.uri());
+    }
+
+    private static String expectRedirect(HttpResponse<?> response) {
+        expectStatus(response, 302);
+        String location = response.headers().firstValue("Location")
+                .orElseThrow(() -> new IllegalStateException("Redirect without Location from " + response.uri()));
+        int pathParameters = location.indexOf(';'); // A new session is also encoded in the URL: /quiz;jsessionid=...
+        return (pathParameters < 0) ? location : location.substring(0, pathParameters);
+    }
+
+    private static void expectStatus(HttpResponse<?> response, int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " from " + response.uri());
+        }
+    }
+
+    private void report(double seconds) {
+        long totalRequests = latencies.values().stream().mapToLong(ConcurrentLinkedQueue::size).sum();
+        System.out.printf("Games: %d completed, %d failed in %.1f s (%.1f games/s)%n",
+                completedGames.get(), failedGames.get(), seconds, completedGames.get() / seconds);
+        System.out.printf("Requests: %d (%.0f req/s)%n", totalRequests, totalRequests / seconds);
+        if (timedOutGames.get() > 0) {
+            System.out.printf("Games ended by the timer: %d%n", timedOutGames.get());
+        }
+        reportGameOverBurst();
+        System.out.printf("%-14s %8s %8s %8s %8s %8s %8s%n", "endpoint", "count", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        List<Long> all = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentLinkedQueue<Long>> entry : new TreeMap<>(latencies).entrySet()) {
+            printRow(entry.getKey(), entry.getValue(), seconds);
+            all.addAll(entry.getValue());
+        }
+        printRow("all", all, seconds);
+        failures.stream().limit(10).forEach(failure -> System.out.println("  " + failure));
+    }
+
+    // How tightly the players reached the game-over page: its requests over the busiest second
+    private void reportGameOverBurst() {
+        long[] arrivals = gameOverArrivals.stream().mapToLong(Long::longValue).toArray();
+        if (arrivals.length == 0) {
+            return;
+        }
+        Arrays.sort(arrivals);
+        int busiest = 0;
+        for (int first = 0, last = 0; last < arrivals.length; last++) {
+            while (arrivals[last] - arrivals[first] >= 1000) {
+                first++;
+            }
+            busiest = Math.max(busiest, last - first + 1);
+        }
+        System.out.printf("Game-over arrivals: %d over %.1f s, at most %d within one second%n",
+                arrivals.length, (arrivals[arrivals.length - 1] - arrivals[0]) / 1000.0, busiest);
+    }
+
+    private static void printRow(String endpoint, Collection<Long> samples, double seconds) {
+        long[] sorted = samples.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.printf("%-14s %8d %8.1f %8.1f %8.1f %8.1f %8.1f%n", endpoint, sorted.length, sorted.length / seconds,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+    }
+
+    private static double percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1; // Nearest rank
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new TreeMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                System.err.println("Usage: java loadtest/QuizLoadTest.java [--url URL] [--players N] [--ramp-seconds S] [--think-millis MS] [--think-jitter-millis MS]");
+                System.exit(2);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Simulates an exam-day classroom against a freshly started app: every student starts within a few
+# seconds, thinks long enough per question that the 60 s timer runs out, and so all of them land on
+# the game-over page together. Prints the load test report and the app's resident memory afterwards.
+#
+# Usage: loadtest/classroom-burst.sh [students] [start-seconds] [think-millis] [think-jitter-millis]
+# JAVA_OPTS defaults to a 512 MB heap; PORT defaults to 18888 and MVN to "sh ./mvnw" (mvnw is not executable).
+# APP_ARGS holds extra app settings and defaults to turning bonus time off, so that every game lasts exactly 60 s.
+set -euo pipefail
+
+STUDENTS=${1:-300}
+START_SECONDS=${2:-5}
+THINK_MILLIS=${3:-6000}
+THINK_JITTER_MILLIS=${4:-4000}
+PORT=${PORT:-18888}
+JAVA_OPTS=${JAVA_OPTS:--Xmx512m}
+APP_ARGS=${APP_ARGS:---quiz.bonus-time.enabled=false}
+
+cd "$(dirname "$0")/.."
+${MVN:-sh ./mvnw} -B -q package -DskipTests
+JAR=target/isp-quiz-1.0-SNAPSHOT.jar
+
+WORK=$(mktemp -d)
+APP_PID=
+cleanup() {
+    [ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true
+    rm -rf "$WORK"
+}
+trap cleanup EXIT
+
+# The repository ships no questions, so generate a bank
+awk 'BEGIN { for (i = 0; i < 200; i++) printf "Question %d?\nA%d\nB%d\nC%d\nD%d\nA\n\n", i, i, i, i, i }' > "$WORK/questions.txt"
+
+# shellcheck disable=SC2086
+java $JAVA_OPTS -jar "$JAR" \
+    --server.port="$PORT" \
+    --quiz.questions.external-path="$WORK/questions.txt" \
+    --quiz.leaderboard.save-path="$WORK/leaderboard.txt" \
+    --quiz.results.log-dir="$WORK/results" $APP_ARGS > "$WORK/app.log" 2>&1 &
+APP_PID=$!
+for _ in $(seq 1 120); do
+    curl -s -o /dev/null "http://localhost:$PORT/about" && break
+    sleep 0.5
+done
+
+java loadtest/QuizLoadTest.java --url "http://localhost:$PORT" --players "$STUDENTS" --ramp-seconds "$START_SECONDS" \
+    --think-millis "$THINK_MILLIS" --think-jitter-millis "$THINK_JITTER_MILLIS"
+echo "App resident memory: $(ps -o rss= -p "$APP_PID" | awk '{ printf "%.0f MB", $1 / 1024 }')"
+if grep -q "ERROR" "$WORK/app.log"; then
+    echo "Errors in the app log:"
+    grep -m 10 "ERROR" "$WORK/app.log"
+fi
@@ -0,0 +1,49 @@
+#!/usr/bin/env bash
+# Runs the same load against the app twice, first on Tomcat's platform thread pool and then with
+# spring.threads.virtual.enabled=true, each time on a fresh leaderboard and results log.
+#
+# Usage: loadtest/compare-thread-modes.sh [players] [think-millis] [ramp-seconds]
+# JAVA_OPTS defaults to a small container (256 MB heap, 2 CPUs); PORT defaults to 18888 and MVN to "sh ./mvnw" (mvnw is not executable).
+set -euo pipefail
+
+PLAYERS=${1:-1000}
+THINK_MILLIS=${2:-200}
+RAMP_SECONDS=${3:-5}
+PORT=${PORT:-18888}
+JAVA_OPTS=${JAVA_OPTS:--Xmx256m -XX:ActiveProcessorCount=2}
+
+cd "$(dirname "$0")/.."
+${MVN:-sh ./mvnw} -B -q package -DskipTests
+JAR=target/isp-quiz-1.0-SNAPSHOT.jar
+
+WORK=$(mktemp -d)
+APP_PID=
+cleanup() {
+    [ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true
+    rm -rf "$WORK"
+}
+trap cleanup EXIT
+
+# The repository ships no questions, so generate a bank
+awk 'BEGIN { for (i = 0; i < 200; i++) printf "Question %d?\nA%d\nB%d\nC%d\nD%d\nA\n\n", i, i, i, i, i }' > "$WORK/questions.txt"
+
+for VIRTUAL in false true; do
+    rm -rf "$WORK/data" && mkdir "$WORK/data"
+    # shellcheck disable=SC2086
+    java $JAVA_OPTS -jar "$JAR" \
+        --server.port="$PORT" \
+        --spring.threads.virtual.enabled="$VIRTUAL" \
+        --quiz.questions.external-path="$WORK/questions.txt" \
+        --quiz.leaderboard.save-path="$WORK/data/leaderboard.txt" \
+        --quiz.results.log-dir="$WORK/data/results" > "$WORK/app-$VIRTUAL.log" 2>&1 &
+    APP_PID=$!
+    for _ in $(seq 1 120); do
+        curl -s -o /dev/null "http://localhost:$PORT/about" && break
+        sleep 0.5
+    done
+    echo "=== spring.threads.virtual.enabled=$VIRTUAL"
+    java loadtest/QuizLoadTest.java --url "http://localhost:$PORT" --players "$PLAYERS" \
+        --think-millis "$THINK_MILLIS" --ramp-seconds "$RAMP_SECONDS"
+    kill "$APP_PID" && wait "$APP_PID" 2>/dev/null || true
+    APP_PID=
+done
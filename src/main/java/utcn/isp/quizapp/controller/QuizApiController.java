@@ -0,0 +1,135 @@
+package utcn.isp.quizapp.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import utcn.isp.quizapp.model.CompletedQuiz;
+import utcn.isp.quizapp.model.ShuffledQuestion;
+import utcn.isp.quizapp.service.Leaderboard;
+import utcn.isp.quizapp.service.QuizSessionService;
+
+import java.util.List;
+
+/**
+ * JSON version of the quiz flow, backed by the same session-scoped {@link QuizSessionService} as the
+ * pages. Submitting an answer returns the feedback and the next question in one response, so a game
+ * costs one request per question instead of a POST, a redirect and a full page render.
+ * <p>
+ * The game still lives in the HTTP session; the API is stateless only in that nothing is rendered or
+ * kept between the requests besides that game.
+ */
+@RestController
+@RequestMapping("/api/quiz")
+public class QuizApiController {
+
+    private final QuizSessionService quizSessionService;
+    private final Leaderboard leaderboard;
+
+    public record QuestionView(int number, String text, List<String> options) {
+    }
+
+    /**
+     * @param question null once the game is finished
+     */
+    public record GameState(String userName, int score, int answeredQuestions, int totalQuestions,
+                            long remainingSeconds, boolean finished, QuestionView question) {
+    }
+
+    public record AnswerResult(boolean correct, String feedback, GameState state) {
+    }
+
+    public record GameResult(String userName, int score, int totalQuestions, int answeredQuestions,
+                             int incorrectAnswers, double accuracyPercentage, long durationSeconds,
+                             int rank, int leaderboardSize) {
+    }
+
+    public record ApiError(String error, String message) {
+    }
+
+    public QuizApiController(QuizSessionService quizSessionService, Leaderboard leaderboard) {
+        this.quizSessionService = quizSessionService;
+        this.leaderboard = leaderboard;
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestParam("username") String username,
+                                   @RequestParam(value = "confirmOverwrite", defaultValue = "false") boolean confirmOverwrite,
+                                   @RequestParam(value = "topic", required = false) String topic) {
+        if (username == null || username.trim().isEmpty()) {
+            return error(HttpStatus.BAD_REQUEST, "invalid-username", "Username cannot be empty.");
+        }
+        String trimmedName = username.trim();
+        if (leaderboard.hasUser(trimmedName) && !confirmOverwrite) {
+            return error(HttpStatus.CONFLICT, "username-exists",
+                    "This username already exists on the leaderboard. Repeat with confirmOverwrite=true to continue.");
+        }
+        if (topic == null || topic.isBlank()) {
+            quizSessionService.startNewGame(trimmedName);
+        } else {
+            quizSessionService.startNewGame(trimmedName, topic);
+        }
+        if (!quizSessionService.hasNextQuestion()) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "no-questions", "No questions available to start the quiz.");
+        }
+        return ResponseEntity.ok(state());
+    }
+
+    @GetMapping("/question")
+    public ResponseEntity<?> question() {
+        if (!quizSessionService.isGameActive()) {
+            return noGame();
+        }
+        return ResponseEntity.ok(state());
+    }
+
+    @PostMapping("/answer")
+    public ResponseEntity<?> answer(@RequestParam("answer") int selectedOptionIndex) {
+        if (!quizSessionService.isGameActive()) {
+            return noGame();
+        }
+        if (quizSessionService.isGameFinished()) {
+            return error(HttpStatus.CONFLICT, "game-finished", "The game is over, no more answers are accepted.");
+        }
+        boolean correct = quizSessionService.submitAnswer(selectedOptionIndex);
+        return ResponseEntity.ok(new AnswerResult(correct, quizSessionService.getFeedbackMessage(correct), state()));
+    }
+
+    /**
+     * Records the result on the leaderboard and ends the game; the page flow does this in {@code /gameOver}.
+     */
+    @PostMapping("/finish")
+    public ResponseEntity<?> finish() {
+        if (!quizSessionService.isGameActive()) {
+            return noGame();
+        }
+        CompletedQuiz result = quizSessionService.finishGame();
+        return ResponseEntity.ok(new GameResult(result.getUserName(), result.getScore(), result.getTotalQuestions(),
+                result.getAnsweredQuestions(), result.getIncorrectAnswers(), result.getAccuracyPercentage(),
+                result.getDurationSeconds(), leaderboard.getRank(result.getUserName()), leaderboard.getUserCount()));
+    }
+
+    private GameState state() {
+        boolean finished = quizSessionService.isGameFinished();
+        QuestionView question = null;
+        if (!finished) {
+            ShuffledQuestion current = quizSessionService.getCurrentQuestion();
+            question = new QuestionView(quizSessionService.getAnsweredQuestionCount() + 1,
+                    current.getQuestionText(), List.copyOf(current.getOptions()));
+        }
+        return new GameState(quizSessionService.getUserName(), quizSessionService.getScore(),
+                quizSessionService.getAnsweredQuestionCount(), quizSessionService.getTotalQuestionCount(),
+                quizSessionService.getRemainingTimeSeconds(), finished, question);
+    }
+
+    private static ResponseEntity<ApiError> noGame() {
+        return error(HttpStatus.NOT_FOUND, "no-game", "No active game, start one first.");
+    }
+
+    private static ResponseEntity<ApiError> error(HttpStatus status, String error, String message) {
+        return ResponseEntity.status(status).body(new ApiError(error, message));
+    }
+}
@@ -1,11 +1,17 @@
 package utcn.isp.quizapp.controller;
 
-import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.ShuffledQuestion;
 import utcn.isp.quizapp.service.Leaderboard;
+import utcn.isp.quizapp.service.LeaderboardStreamService;
 import utcn.isp.quizapp.service.QuizSessionService;
 import utcn.isp.quizapp.service.ActiveSessionsService;
+import utcn.isp.quizapp.service.QuestionBank;
 import utcn.isp.quizapp.service.CompletedQuizService; // Added import
+import utcn.isp.quizapp.service.DashboardEventsService;
+import utcn.isp.quizapp.service.QuestionAnalyticsService;
 import utcn.isp.quizapp.model.CompletedQuiz; // Added import
+import utcn.isp.quizapp.model.LeaderboardPage;
+import utcn.isp.quizapp.model.QuestionPerformance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
@@ -14,17 +20,22 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.support.SessionStatus;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpServletResponse; // Added import
 import jakarta.servlet.http.HttpSession; // For Spring Boot 3+
 // import javax.servlet.http.HttpSession; // For Spring Boot 2.x
-import java.io.InputStream; // Added import
 import java.io.OutputStream; // Added import
-import java.nio.file.Files; // Added import
 import java.nio.file.Path; // Added import
 import java.nio.file.Paths; // Added import
 import java.io.IOException; // Added import
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 
 @Controller
@@ -34,6 +45,10 @@ public class QuizWebController {
     private final Leaderboard leaderboard;
     private final ActiveSessionsService activeSessionsService;
     private final CompletedQuizService completedQuizService; // Added dependency
+    private final QuestionBank questionBank;
+    private final DashboardEventsService dashboardEventsService;
+    private final LeaderboardStreamService leaderboardStreamService;
+    private final QuestionAnalyticsService questionAnalyticsService;
 
     @Value("${dashboard.password}") // Inject password from application.properties
     private String expectedDashboardPassword;
@@ -41,27 +56,51 @@ public class QuizWebController {
     @Value("${quiz.leaderboard.save-path:leaderboard_data.txt}") // Inject leaderboard file path
     private String leaderboardFilePath;
 
+    @Value("${quiz.leaderboard.page-size:25}")
+    private int leaderboardPageSize;
+
+    @Value("${quiz.leaderboard.around-me-radius:5}") // Players shown above and below the user on the game-over screen
+    private int leaderboardAroundMeRadius;
+
+    @Value("${quiz.client-side-play.enabled:true}") // quiz.html submits answers through the JSON API
+    private boolean clientSidePlay;
+
+    @Value("${quiz.results.capacity:1000}") // Rows listed on the results page, for a past day too
+    private int resultsCapacity;
+
     @Autowired
     public QuizWebController(QuizSessionService quizSessionService, 
                              Leaderboard leaderboard, 
                              ActiveSessionsService activeSessionsService,
-                             CompletedQuizService completedQuizService) { // Added dependency
+                             CompletedQuizService completedQuizService, // Added dependency
+                             QuestionBank questionBank,
+                             DashboardEventsService dashboardEventsService,
+                             LeaderboardStreamService leaderboardStreamService,
+                             QuestionAnalyticsService questionAnalyticsService) {
         this.quizSessionService = quizSessionService;
         this.leaderboard = leaderboard;
         this.activeSessionsService = activeSessionsService;
         this.completedQuizService = completedQuizService; // Initialize dependency
+        this.questionBank = questionBank;
+        this.dashboardEventsService = dashboardEventsService;
+        this.leaderboardStreamService = leaderboardStreamService;
+        this.questionAnalyticsService = questionAnalyticsService;
     }
 
     @GetMapping("/")
-    public String index(SessionStatus sessionStatus, HttpSession session, Model model) {
+    public String index(@RequestParam(value = "topic", required = false) String topic,
+                        SessionStatus sessionStatus, HttpSession session, Model model) {
         model.addAttribute("suggestedUsername", generateFunUsername());
+        addTopics(model, topic);
         return "index";
     }
 
     @PostMapping("/start")
     public String startGame(@RequestParam("username") String username,
                             @RequestParam(value = "confirmOverwrite", defaultValue = "false") boolean confirmOverwrite,
+                            @RequestParam(value = "topic", required = false) String topic,
                             Model model) {
+        addTopics(model, topic);
         if (username == null || username.trim().isEmpty()) {
             model.addAttribute("error", "Username cannot be empty.");
             return "index";
@@ -73,7 +112,11 @@ public class QuizWebController {
             model.addAttribute("suggestedUsername", generateFunUsername());
             return "index";
         }
-        quizSessionService.startNewGame(trimmedName);
+        if (topic == null || topic.isBlank()) {
+            quizSessionService.startNewGame(trimmedName);
+        } else {
+            quizSessionService.startNewGame(trimmedName, topic);
+        }
         if (!quizSessionService.hasNextQuestion()) {
              model.addAttribute("error", "No questions available to start the quiz.");
              return "index"; // Or a specific error page
@@ -91,10 +134,11 @@ public class QuizWebController {
             return "redirect:/gameOver";
         }
 
-        Question currentQuestion = quizSessionService.getCurrentQuestion();
+        ShuffledQuestion currentQuestion = quizSessionService.getCurrentQuestion();
         model.addAttribute("question", currentQuestion);
         model.addAttribute("game", quizSessionService.getCurrentGame()); 
         model.addAttribute("remainingTime", quizSessionService.getRemainingTimeSeconds());
+        model.addAttribute("clientSidePlay", clientSidePlay);
 
         return "quiz";
     }
@@ -107,10 +151,7 @@ public class QuizWebController {
         }
 
         boolean correct = quizSessionService.submitAnswer(selectedOptionIndex);
-        String feedbackMessage = correct ? "Correct answer!" : "Incorrect answer.";
-        if (correct && quizSessionService.isBonusTimeActive()) {
-            feedbackMessage += " +" + quizSessionService.getBonusTimeSeconds() + "s bonus.";
-        }
+        String feedbackMessage = quizSessionService.getFeedbackMessage(correct);
         String feedbackType = correct ? "success" : "error";
         redirectAttributes.addFlashAttribute("answerFeedback", feedbackMessage);
         redirectAttributes.addFlashAttribute("answerFeedbackType", feedbackType);
@@ -126,24 +167,19 @@ public class QuizWebController {
     public String gameOver(Model model, SessionStatus sessionStatus, HttpSession httpSession) {
         if (!quizSessionService.isGameActive() && quizSessionService.getUserName().isEmpty()) {
             model.addAttribute("message", "No active game found or game already ended.");
-            model.addAttribute("leaderboard", leaderboard.getAllScoresSorted());
+            model.addAttribute("leaderboard", leaderboard.getPage(1, leaderboardPageSize).getEntries());
             quizSessionService.endGame(); 
             return "gameOver";
         }
         
-        String userName = quizSessionService.getUserName();
-        int score = quizSessionService.getScore();
-        int totalQuestions = quizSessionService.getTotalQuestionCount();
-        int answeredQuestions = quizSessionService.getAnsweredQuestionCount();
-        int incorrectAnswers = Math.max(0, answeredQuestions - score);
-        long durationSeconds = quizSessionService.getElapsedSeconds();
-        double accuracyPercentage = (totalQuestions > 0)
-                ? (score * 100.0) / totalQuestions
-                : 0.0;
-
-        leaderboard.addScore(userName, score);
-        completedQuizService.addCompletedQuiz(
-                new CompletedQuiz(userName, score, totalQuestions, answeredQuestions, durationSeconds)); // Add to completed quizzes
+        CompletedQuiz result = quizSessionService.finishGame(); // Leaderboard and completed results
+        String userName = result.getUserName();
+        int score = result.getScore();
+        int totalQuestions = result.getTotalQuestions();
+        int answeredQuestions = result.getAnsweredQuestions();
+        int incorrectAnswers = result.getIncorrectAnswers();
+        long durationSeconds = result.getDurationSeconds();
+        double accuracyPercentage = result.getAccuracyPercentage();
 
         model.addAttribute("username", userName);
         model.addAttribute("score", score);
@@ -152,9 +188,9 @@ public class QuizWebController {
         model.addAttribute("incorrectAnswers", incorrectAnswers);
         model.addAttribute("durationSeconds", durationSeconds);
         model.addAttribute("accuracyPercentage", accuracyPercentage);
-        model.addAttribute("leaderboard", leaderboard.getAllScoresSorted());
-        
-        quizSessionService.endGame();
+        model.addAttribute("leaderboard", leaderboard.getScoresAround(userName, leaderboardAroundMeRadius));
+        model.addAttribute("userRank", leaderboard.getRank(userName));
+        model.addAttribute("leaderboardSize", leaderboard.getUserCount());
         return "gameOver";
     }
 
@@ -167,16 +203,39 @@ public class QuizWebController {
     }
 
     @GetMapping("/leaderboard")
-    public String publicLeaderboard(Model model) {
-        model.addAttribute("leaderboard", leaderboard.getAllScoresSorted());
+    public String publicLeaderboard(@RequestParam(value = "page", defaultValue = "1") int page,
+                                    WebRequest webRequest, HttpServletResponse response, Model model) {
+        response.setHeader("Cache-Control", "no-cache"); // Always revalidate, the ETag makes that cheap
+        long version = leaderboard.getVersion(); // Before the page, so neither the ETag nor the live stream skips a change
+        LeaderboardPage leaderboardPage = leaderboard.getPage(page, leaderboardPageSize);
+        // Keyed by the page actually shown: out-of-range requests are clamped to the first or last page
+        if (webRequest.checkNotModified(leaderboardETag("page-" + leaderboardPage.getPage() + "-" + leaderboardPageSize, version))) {
+            return null; // 304 Not Modified
+        }
+        model.addAttribute("leaderboardPage", leaderboardPage);
+        model.addAttribute("leaderboard", leaderboardPage.getEntries());
+        model.addAttribute("leaderboardVersion", version);
         return "leaderboard";
     }
 
+    /**
+     * Live leaderboard updates as Server-Sent Events, see {@link LeaderboardStreamService}.
+     */
+    @GetMapping(value = "/leaderboard/stream", produces = "text/event-stream")
+    public SseEmitter leaderboardStream(@RequestParam(value = "since", defaultValue = "-1") long since) {
+        return leaderboardStreamService.subscribe(since);
+    }
+
     @GetMapping("/about")
     public String aboutPage() {
         return "about";
     }
 
+    private void addTopics(Model model, String selectedTopic) {
+        model.addAttribute("topics", questionBank.getCategories());
+        model.addAttribute("selectedTopic", (selectedTopic == null || selectedTopic.isBlank()) ? null : selectedTopic);
+    }
+
     private String generateFunUsername() {
         String[] adjectives = {
                 // Personality traits
@@ -234,9 +293,35 @@ public class QuizWebController {
         }
         model.addAttribute("activeSessions", activeSessionsService.getActiveSessions());
         model.addAttribute("activeSessionCount", activeSessionsService.getActiveSessionCount());
+        model.addAttribute("timedOutGameCount", activeSessionsService.getTimedOutGameCount());
+        model.addAttribute("abandonedGameCount", activeSessionsService.getAbandonedGameCount());
+        model.addAttribute("pendingDeadlineCount", activeSessionsService.getPendingDeadlineCount());
+        model.addAttribute("questionBankSize", questionBank.size());
+        model.addAttribute("questionBankSource", questionBank.getSource());
+        model.addAttribute("questionLoadReport", questionBank.getLastLoadReport());
+        model.addAttribute("questionLoadApplied", questionBank.isLastLoadApplied());
+        model.addAttribute("journalStats", leaderboard.getJournalStats());
         return "dashboard";
     }
 
+    /**
+     * Server-Sent Events stream for the dashboard pages: a "snapshot" event, then deltas
+     * (session-started, session-updated, session-ended, quiz-completed).
+     */
+    @GetMapping(value = "/dashboard/events", produces = "text/event-stream")
+    public SseEmitter dashboardEvents(HttpSession session, HttpServletResponse response) throws IOException {
+        if (!Boolean.TRUE.equals(session.getAttribute("dashboardAuthorized"))) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return null;
+        }
+        return dashboardEventsService.subscribe(() -> {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("sessions", activeSessionsService.describeActiveSessions());
+            snapshot.put("aggregates", completedQuizService.describeAggregates());
+            return snapshot;
+        });
+    }
+
     @GetMapping("/dashboard-logout")
     public String dashboardLogout(HttpSession session) {
         session.removeAttribute("dashboardAuthorized");
@@ -244,42 +329,73 @@ public class QuizWebController {
     }
 
     @GetMapping("/dashboard-results")
-    public String dashboardResults(Model model, HttpSession session) {
+    public String dashboardResults(@RequestParam(value = "day", required = false) String day,
+                                   Model model, HttpSession session) {
         if (!Boolean.TRUE.equals(session.getAttribute("dashboardAuthorized"))) {
             return "redirect:/dashboard-login";
         }
-        model.addAttribute("completedQuizzes", completedQuizService.getCompletedQuizzes());
+        LocalDate selectedDay = null;
+        if (day != null && !day.isBlank()) {
+            try {
+                selectedDay = LocalDate.parse(day.trim());
+            } catch (DateTimeParseException e) {
+                model.addAttribute("dayError", "Invalid day '" + day + "', expected YYYY-MM-DD.");
+            }
+        }
+        model.addAttribute("completedQuizzes", (selectedDay != null)
+                ? completedQuizService.getCompletedQuizzes(selectedDay, resultsCapacity)
+                : completedQuizService.getCompletedQuizzes());
+        model.addAttribute("selectedDay", selectedDay);
+        model.addAttribute("resultsCapacity", resultsCapacity);
+        model.addAttribute("historyDays", completedQuizService.getHistoryDays());
         model.addAttribute("completedQuizCount", completedQuizService.getCompletedQuizCount());
         model.addAttribute("totalQuestionsAsked", completedQuizService.getTotalQuestionsAsked());
         model.addAttribute("totalQuestionsAnswered", completedQuizService.getTotalAnsweredQuestions());
         model.addAttribute("averageAccuracy", completedQuizService.getAverageAccuracyPercentage());
         model.addAttribute("averageDurationSeconds", completedQuizService.getAverageDurationSeconds());
+        model.addAttribute("answerTimePercentiles", questionAnalyticsService.getOverallAnswerTimePercentiles());
         return "dashboard-results"; // New template
     }
 
+    @GetMapping("/dashboard-questions")
+    public String dashboardQuestions(Model model, HttpSession session) {
+        if (!Boolean.TRUE.equals(session.getAttribute("dashboardAuthorized"))) {
+            return "redirect:/dashboard-login";
+        }
+        List<QuestionPerformance> performance = questionAnalyticsService.getQuestionPerformance();
+        model.addAttribute("hardestQuestions", questionAnalyticsService.getHardestQuestions(performance));
+        model.addAttribute("easiestQuestions", questionAnalyticsService.getEasiestQuestions(performance));
+        model.addAttribute("slowestQuestions", questionAnalyticsService.getSlowestQuestions(performance));
+        model.addAttribute("trackedQuestionCount", performance.size());
+        model.addAttribute("recordedAnswerCount", performance.stream().mapToLong(QuestionPerformance::getAttempts).sum());
+        model.addAttribute("untrackedAnswerCount", questionAnalyticsService.getUntrackedAnswerCount());
+        model.addAttribute("minAttempts", questionAnalyticsService.getMinAttempts());
+        model.addAttribute("answerTimePercentiles", questionAnalyticsService.getOverallAnswerTimePercentiles());
+        return "dashboard-questions";
+    }
+
     @GetMapping("/download-leaderboard")
-    public void downloadLeaderboardFile(HttpSession session, HttpServletResponse response) throws IOException {
+    public void downloadLeaderboardFile(HttpSession session, WebRequest webRequest, HttpServletResponse response) throws IOException {
         if (!Boolean.TRUE.equals(session.getAttribute("dashboardAuthorized"))) {
             response.sendRedirect("/dashboard-login"); // Redirect if not authorized
             return;
         }
 
-        Path filePath = Paths.get(leaderboardFilePath);
-        if (!Files.exists(filePath) || !Files.isReadable(filePath)) {
-            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Leaderboard file not found or not readable.");
-            return;
+        response.setHeader("Cache-Control", "private, no-cache");
+        if (webRequest.checkNotModified(leaderboardETag("download", leaderboard.getVersion()))) {
+            return; // 304 Not Modified
         }
 
+        // Served from memory: with the journal enabled the save file on disk may lag behind the latest scores
+        Path filePath = Paths.get(leaderboardFilePath);
+        byte[] content = leaderboard.getExportContent();
         response.setContentType("text/plain");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(content.length);
         response.setHeader("Content-Disposition", "attachment; filename=\"" + filePath.getFileName().toString() + "\"");
 
-        try (InputStream inputStream = Files.newInputStream(filePath);
-             OutputStream outputStream = response.getOutputStream()) {
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
+        try (OutputStream outputStream = response.getOutputStream()) {
+            outputStream.write(content);
         } catch (IOException e) {
             // Log error, maybe send a different error response
             System.err.println("Error writing leaderboard file to output stream: " + e.getMessage());
@@ -288,4 +404,8 @@ public class QuizWebController {
             }
         }
     }
+
+    private String leaderboardETag(String view, long version) {
+        return "\"leaderboard-" + view + "-v" + version + "\"";
+    }
 }
@@ -3,24 +3,49 @@ package utcn.isp.quizapp.model;
 import java.time.LocalDateTime;
 
 public class CompletedQuiz {
+    public static final long NO_ANSWER_TIME = -1; // No answers, or recorded before answer times were kept
+
     private final String userName;
     private final int score;
     private final int totalQuestions;
     private final int answeredQuestions;
     private final long durationSeconds;
     private final LocalDateTime completionTime;
+    private final long medianAnswerMillis;
+    private final long p90AnswerMillis;
+    private final long p99AnswerMillis;
 
     public CompletedQuiz(String userName, int score) {
         this(userName, score, 0, 0, 0);
     }
 
     public CompletedQuiz(String userName, int score, int totalQuestions, int answeredQuestions, long durationSeconds) {
+        this(userName, score, totalQuestions, answeredQuestions, durationSeconds, LocalDateTime.now());
+    }
+
+    public CompletedQuiz(String userName, int score, int totalQuestions, int answeredQuestions, long durationSeconds,
+                         LocalDateTime completionTime) {
+        this(userName, score, totalQuestions, answeredQuestions, durationSeconds, completionTime,
+                NO_ANSWER_TIME, NO_ANSWER_TIME, NO_ANSWER_TIME);
+    }
+
+    public CompletedQuiz(String userName, int score, int totalQuestions, int answeredQuestions, long durationSeconds,
+                         long medianAnswerMillis, long p90AnswerMillis, long p99AnswerMillis) {
+        this(userName, score, totalQuestions, answeredQuestions, durationSeconds, LocalDateTime.now(),
+                medianAnswerMillis, p90AnswerMillis, p99AnswerMillis);
+    }
+
+    public CompletedQuiz(String userName, int score, int totalQuestions, int answeredQuestions, long durationSeconds,
+                         LocalDateTime completionTime, long medianAnswerMillis, long p90AnswerMillis, long p99AnswerMillis) {
         this.userName = userName;
         this.score = score;
         this.totalQuestions = totalQuestions;
         this.answeredQuestions = answeredQuestions;
         this.durationSeconds = durationSeconds;
-        this.completionTime = LocalDateTime.now();
+        this.completionTime = completionTime;
+        this.medianAnswerMillis = medianAnswerMillis;
+        this.p90AnswerMillis = p90AnswerMillis;
+        this.p99AnswerMillis = p99AnswerMillis;
     }
 
     public String getUserName() {
@@ -57,4 +82,20 @@ public class CompletedQuiz {
     public LocalDateTime getCompletionTime() {
         return completionTime;
     }
+
+    public boolean hasAnswerTimes() {
+        return medianAnswerMillis != NO_ANSWER_TIME;
+    }
+
+    public long getMedianAnswerMillis() {
+        return medianAnswerMillis;
+    }
+
+    public long getP90AnswerMillis() {
+        return p90AnswerMillis;
+    }
+
+    public long getP99AnswerMillis() {
+        return p99AnswerMillis;
+    }
 }
@@ -0,0 +1,21 @@
+package utcn.isp.quizapp.model;
+
+import java.util.Locale;
+
+public enum Difficulty {
+    EASY, MEDIUM, HARD;
+
+    /**
+     * @return the difficulty with the given name (case-insensitive), or null if there is none
+     */
+    public static Difficulty parse(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package utcn.isp.quizapp.model;
+
+import java.util.List;
+
+public class LeaderboardPage {
+    private final List<RankedUser> entries;
+    private final int page; // 1-based
+    private final int pageSize;
+    private final int totalEntries;
+
+    public LeaderboardPage(List<RankedUser> entries, int page, int pageSize, int totalEntries) {
+        this.entries = entries;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.totalEntries = totalEntries;
+    }
+
+    public List<RankedUser> getEntries() {
+        return entries;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getTotalEntries() {
+        return totalEntries;
+    }
+
+    public int getTotalPages() {
+        if (pageSize <= 0) {
+            return 0;
+        }
+        return (totalEntries + pageSize - 1) / pageSize;
+    }
+
+    public boolean hasPrevious() {
+        return page > 1;
+    }
+
+    public boolean hasNext() {
+        return page < getTotalPages();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+}
@@ -5,14 +5,28 @@ import java.util.Collections;
 import java.util.List;
 
 public class Question {
-    private String questionText;
-    private List<String> options;
-    private int correctOptionIndex; // 0-based index
+    public static final String DEFAULT_CATEGORY = "General";
+
+    // Immutable: instances from the question bank are shared by all sessions
+    private final String questionText;
+    private final List<String> options;
+    private final int correctOptionIndex; // 0-based index
+    private final String category;
+    private final Difficulty difficulty;
+    private final List<String> tags;
 
     public Question(String questionText, List<String> options, int correctOptionIndex) {
+        this(questionText, options, correctOptionIndex, DEFAULT_CATEGORY, Difficulty.MEDIUM, Collections.emptyList());
+    }
+
+    public Question(String questionText, List<String> options, int correctOptionIndex,
+                    String category, Difficulty difficulty, List<String> tags) {
         this.questionText = questionText;
-        this.options = options;
+        this.options = (options == null) ? null : Collections.unmodifiableList(new ArrayList<>(options));
         this.correctOptionIndex = correctOptionIndex;
+        this.category = (category == null || category.isBlank()) ? DEFAULT_CATEGORY : category;
+        this.difficulty = (difficulty == null) ? Difficulty.MEDIUM : difficulty;
+        this.tags = (tags == null) ? Collections.emptyList() : List.copyOf(tags);
     }
 
     public String getQuestionText() {
@@ -23,29 +37,19 @@ public class Question {
         return options;
     }
 
-    public boolean isCorrect(int selectedOptionIndex) {
-        return selectedOptionIndex == correctOptionIndex;
+    public String getCategory() {
+        return category;
     }
 
-    public Question shuffledCopy() {
-        if (options == null || options.isEmpty()) {
-            List<String> safeOptions = (options == null) ? Collections.emptyList() : new ArrayList<>(options);
-            return new Question(questionText, safeOptions, correctOptionIndex);
-        }
-        List<Integer> indexes = new ArrayList<>();
-        for (int i = 0; i < options.size(); i++) {
-            indexes.add(i);
-        }
-        Collections.shuffle(indexes);
-        List<String> shuffledOptions = new ArrayList<>(options.size());
-        int newCorrectIndex = 0;
-        for (int pos = 0; pos < indexes.size(); pos++) {
-            int originalIndex = indexes.get(pos);
-            shuffledOptions.add(options.get(originalIndex));
-            if (originalIndex == correctOptionIndex) {
-                newCorrectIndex = pos;
-            }
-        }
-        return new Question(questionText, shuffledOptions, newCorrectIndex);
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public boolean isCorrect(int selectedOptionIndex) {
+        return selectedOptionIndex == correctOptionIndex;
     }
 }
@@ -0,0 +1,100 @@
+package utcn.isp.quizapp.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class QuestionLoadReport {
+    public static final int MAX_LISTED_ISSUES = 100; // Counts stay exact, only the listed issues are capped
+
+    private final String source;
+    private final int blocksRead;
+    private final int questionsLoaded;
+    private final List<Issue> rejectedBlocks;
+    private final List<Issue> duplicateQuestions; // Reported only, duplicates are still loaded
+    private final int rejectedCount;
+    private final int duplicateCount;
+    private final int chunks;                     // 1 when parsed sequentially
+    private final long loadMillis;
+    private final LocalDateTime loadedAt;
+
+    public QuestionLoadReport(String source, int blocksRead, int questionsLoaded, List<Issue> rejectedBlocks,
+                              List<Issue> duplicateQuestions, int chunks, long loadMillis) {
+        this.source = source;
+        this.blocksRead = blocksRead;
+        this.questionsLoaded = questionsLoaded;
+        this.rejectedBlocks = List.copyOf(rejectedBlocks.subList(0, Math.min(MAX_LISTED_ISSUES, rejectedBlocks.size())));
+        this.duplicateQuestions = List.copyOf(duplicateQuestions.subList(0, Math.min(MAX_LISTED_ISSUES, duplicateQuestions.size())));
+        this.rejectedCount = rejectedBlocks.size();
+        this.duplicateCount = duplicateQuestions.size();
+        this.chunks = chunks;
+        this.loadMillis = loadMillis;
+        this.loadedAt = LocalDateTime.now();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getBlocksRead() {
+        return blocksRead;
+    }
+
+    public int getQuestionsLoaded() {
+        return questionsLoaded;
+    }
+
+    public List<Issue> getRejectedBlocks() {
+        return rejectedBlocks;
+    }
+
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public List<Issue> getDuplicateQuestions() {
+        return duplicateQuestions;
+    }
+
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    public boolean hasProblems() {
+        return !rejectedBlocks.isEmpty() || !duplicateQuestions.isEmpty();
+    }
+
+    public static class Issue {
+        private final int lineNumber; // 1-based line where the block starts
+        private final String message;
+
+        public Issue(int lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + message;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package utcn.isp.quizapp.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * How many questions of each difficulty a game draws, e.g. parsed from {@code "easy:3,medium:5,hard:2"}.
+ * An empty mix means "draw uniformly regardless of difficulty".
+ */
+public class QuestionMix {
+    private final Map<Difficulty, Integer> counts;
+
+    public QuestionMix(Map<Difficulty, Integer> counts) {
+        this.counts = Collections.unmodifiableMap(new EnumMap<>(counts));
+    }
+
+    public static QuestionMix parse(String spec) {
+        Map<Difficulty, Integer> counts = new EnumMap<>(Difficulty.class);
+        if (spec == null || spec.isBlank()) {
+            return new QuestionMix(counts);
+        }
+        for (String part : spec.split(",")) {
+            String[] pair = part.split(":", 2);
+            Difficulty difficulty = Difficulty.parse(pair[0]);
+            if (pair.length != 2 || difficulty == null) {
+                throw new IllegalArgumentException("Invalid question mix entry '" + part.trim() + "', expected e.g. easy:3");
+            }
+            int count = Integer.parseInt(pair[1].trim());
+            if (count > 0) {
+                counts.merge(difficulty, count, Integer::sum);
+            }
+        }
+        return new QuestionMix(counts);
+    }
+
+    public boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    /**
+     * @return counts in ascending difficulty order
+     */
+    public Map<Difficulty, Integer> getCounts() {
+        return counts;
+    }
+
+    public int getTotal() {
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+}
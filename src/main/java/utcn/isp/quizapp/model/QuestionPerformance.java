@@ -0,0 +1,73 @@
+package utcn.isp.quizapp.model;
+
+public class QuestionPerformance {
+    private final String questionText;
+    private final String category;
+    private final Difficulty difficulty;
+    private final long attempts;
+    private final long correctAnswers;
+    private final long averageAnswerMillis;
+    private final long medianAnswerMillis; // Percentiles are estimates, within about 6%
+    private final long p90AnswerMillis;
+    private final long p99AnswerMillis;
+    private final long maxAnswerMillis;
+
+    public QuestionPerformance(String questionText, String category, Difficulty difficulty, long attempts,
+                               long correctAnswers, long averageAnswerMillis, long medianAnswerMillis,
+                               long p90AnswerMillis, long p99AnswerMillis, long maxAnswerMillis) {
+        this.questionText = questionText;
+        this.category = category;
+        this.difficulty = difficulty;
+        this.attempts = attempts;
+        this.correctAnswers = correctAnswers;
+        this.averageAnswerMillis = averageAnswerMillis;
+        this.medianAnswerMillis = medianAnswerMillis;
+        this.p90AnswerMillis = p90AnswerMillis;
+        this.p99AnswerMillis = p99AnswerMillis;
+        this.maxAnswerMillis = maxAnswerMillis;
+    }
+
+    public String getQuestionText() {
+        return questionText;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public long getCorrectAnswers() {
+        return correctAnswers;
+    }
+
+    public double getCorrectPercentage() {
+        return (attempts == 0) ? 0.0 : (double) correctAnswers * 100.0 / attempts;
+    }
+
+    public long getAverageAnswerMillis() {
+        return averageAnswerMillis;
+    }
+
+    public long getMedianAnswerMillis() {
+        return medianAnswerMillis;
+    }
+
+    public long getP90AnswerMillis() {
+        return p90AnswerMillis;
+    }
+
+    public long getP99AnswerMillis() {
+        return p99AnswerMillis;
+    }
+
+    public long getMaxAnswerMillis() {
+        return maxAnswerMillis;
+    }
+}
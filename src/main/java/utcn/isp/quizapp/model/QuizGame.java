@@ -1,36 +1,71 @@
 package utcn.isp.quizapp.model;
 
+import java.util.Arrays;
 import java.util.List;
 
+// Answers come from the player's request threads while the deadline scheduler may finish the game, so the
+// mutable state below is guarded by this object's monitor.
 public class QuizGame {
-    private List<Question> questions;
-    private User currentUser; // For current game session tracking, not leaderboard user
+    private final List<Question> questionBank; // Shared, immutable bank; never copied per game
+    private final int[] questionIds;           // Indexes into questionBank, in play order
+    private final long[] optionOrders;         // Per-question option order, see ShuffledQuestion
+    private final int[] answerMillis;          // Time taken by each answer, in play order
+    private final String userName;
+    private final long startTime; // Time when the quiz started
+    private long questionStartTime; // Time when the current question was dealt
     private int currentQuestionIndex;
     private int currentScore;
-    private long startTime; // Time when the quiz started
+    private long earnedBonusMillis; // Extra time earned by correct answers
+    private int lastAnswerMillis;   // Time taken by the latest answer
+    private CompletedQuiz result; // Set once, by whichever thread finishes the game first
 
     public QuizGame(List<Question> questions, String userName) {
-        this.questions = questions;
-        this.currentUser = new User(userName, 0); // Score here is for current game
-        this.currentQuestionIndex = 0;
-        this.currentScore = 0;
+        this(questions, identityIds(questions.size()), new long[questions.size()], userName);
+    }
+
+    public QuizGame(List<Question> questionBank, int[] questionIds, long[] optionOrders, String userName) {
+        this.questionBank = questionBank;
+        this.questionIds = questionIds;
+        this.optionOrders = optionOrders;
+        this.answerMillis = new int[questionIds.length];
+        this.userName = userName;
         this.startTime = System.currentTimeMillis(); // Record start time
+        this.questionStartTime = startTime;
+    }
+
+    private static int[] identityIds(int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+        return ids;
     }
 
-    public Question getCurrentQuestion() {
+    public synchronized ShuffledQuestion getCurrentQuestion() {
         if (hasNextQuestion()) {
-            return questions.get(currentQuestionIndex);
+            return new ShuffledQuestion(questionBank.get(questionIds[currentQuestionIndex]), optionOrders[currentQuestionIndex]);
         }
         return null;
     }
 
-    public boolean hasNextQuestion() {
-        return currentQuestionIndex < questions.size();
+    public synchronized boolean hasNextQuestion() {
+        return currentQuestionIndex < questionIds.length;
     }
 
     public boolean answerQuestion(int selectedOptionIndex) {
-        Question question = getCurrentQuestion();
-        if (question != null) {
+        return answerQuestion(getCurrentQuestion(), selectedOptionIndex);
+    }
+
+    /**
+     * @param question the current question, as returned by {@link #getCurrentQuestion()}; lets a caller
+     *                 that needs the question too decode it only once
+     * @return whether the answer was correct; always false once the game is finished, since the
+     *         recorded result no longer changes
+     */
+    public synchronized boolean answerQuestion(ShuffledQuestion question, int selectedOptionIndex) {
+        if (question != null && result == null) {
+            lastAnswerMillis = (int) Math.min(Integer.MAX_VALUE, getCurrentQuestionMillis());
+            answerMillis[currentQuestionIndex] = lastAnswerMillis;
             boolean correct = question.isCorrect(selectedOptionIndex);
             if (correct) {
                 currentScore++;
@@ -40,30 +75,39 @@ public class QuizGame {
         return false;
     }
 
-    public void moveToNextQuestion() {
-        if (hasNextQuestion()) {
+    public synchronized void moveToNextQuestion() {
+        if (hasNextQuestion() && result == null) {
             currentQuestionIndex++;
+            questionStartTime = System.currentTimeMillis();
         }
     }
 
     public int getTotalQuestions() {
-        return questions != null ? questions.size() : 0;
+        return questionIds != null ? questionIds.length : 0;
     }
 
-    public int getAnsweredQuestionsCount() {
+    public synchronized int getAnsweredQuestionsCount() {
         return currentQuestionIndex;
     }
 
-    public int getCurrentScore() {
+    public synchronized int getCurrentScore() {
         return currentScore;
     }
 
-    public int getCurrentQuestionIndex() { // Added getter
+    public synchronized int getCurrentQuestionIndex() { // Added getter
         return currentQuestionIndex;
     }
 
     public String getUserName() {
-        return currentUser.getName();
+        return userName;
+    }
+
+    public synchronized void addBonusTime(long millis) {
+        earnedBonusMillis += millis;
+    }
+
+    public synchronized long getEarnedBonusMillis() {
+        return earnedBonusMillis;
     }
 
     public boolean isTimeUp(long maxDurationMillis) {
@@ -74,6 +118,54 @@ public class QuizGame {
         return startTime;
     }
 
+    /**
+     * @return time spent so far on the current question, counted from the previous answer (or the start)
+     */
+    public synchronized long getCurrentQuestionMillis() {
+        return Math.max(0L, System.currentTimeMillis() - questionStartTime);
+    }
+
+    /**
+     * @return how long the latest answer took, measured by {@link #answerQuestion(ShuffledQuestion, int)}
+     */
+    public synchronized long getLastAnswerMillis() {
+        return lastAnswerMillis;
+    }
+
+    /**
+     * Ends the game and builds its result. Only the first call does so; the request thread of the player
+     * and the server's deadline scheduler may both try.
+     *
+     * @param endMillis when the game ended, no later than its deadline
+     * @return the result, or null if the game was already finished
+     */
+    public synchronized CompletedQuiz finish(long endMillis) {
+        if (result != null) {
+            return null;
+        }
+        long durationSeconds = Math.max(0L, endMillis - startTime) / 1000;
+        int[] answered = Arrays.copyOf(answerMillis, currentQuestionIndex);
+        Arrays.sort(answered);
+        result = new CompletedQuiz(getUserName(), currentScore, getTotalQuestions(), currentQuestionIndex, durationSeconds,
+                percentile(answered, 0.5), percentile(answered, 0.9), percentile(answered, 0.99));
+        return result;
+    }
+
+    // Nearest rank; a game has few answers, so they are kept and ranked exactly
+    private static long percentile(int[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return CompletedQuiz.NO_ANSWER_TIME;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    /**
+     * @return the result built by {@link #finish}, or null while the game is running
+     */
+    public synchronized CompletedQuiz getResult() {
+        return result;
+    }
+
     public long getElapsedSeconds() {
         return (System.currentTimeMillis() - startTime) / 1000;
     }
@@ -0,0 +1,30 @@
+package utcn.isp.quizapp.model;
+
+public class RankedUser {
+    private final int rank; // 1-based, users with equal scores share a rank
+    private final String name;
+    private final int score;
+
+    public RankedUser(int rank, String name, int score) {
+        this.rank = rank;
+        this.name = name;
+        this.score = score;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + rank + " " + name + ": " + score + " points";
+    }
+}
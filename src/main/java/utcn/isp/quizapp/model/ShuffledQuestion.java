@@ -0,0 +1,89 @@
+package utcn.isp.quizapp.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A shared {@link Question} as one player sees it: the options are presented in the order encoded by
+ * {@code optionOrder} instead of being copied into a new list. Positions used by the view (and by the
+ * submitted answer) are display positions; they are mapped back to the original option on access.
+ * <p>
+ * The order is packed into a long, 4 bits per display position holding the original option index, so
+ * up to {@value #MAX_SHUFFLED_OPTIONS} options can be shuffled. {@link #IDENTITY_ORDER} (0) keeps the
+ * original order; it never collides with a real permutation of two or more options.
+ */
+public class ShuffledQuestion {
+    public static final long IDENTITY_ORDER = 0L;
+    public static final int MAX_SHUFFLED_OPTIONS = 16;
+
+    private final Question question;
+    private final long optionOrder;
+
+    public ShuffledQuestion(Question question, long optionOrder) {
+        this.question = question;
+        this.optionOrder = optionOrder;
+    }
+
+    public String getQuestionText() {
+        return question.getQuestionText();
+    }
+
+    public List<String> getOptions() {
+        List<String> options = question.getOptions();
+        return new AbstractList<>() {
+            @Override
+            public String get(int position) {
+                return options.get(originalIndex(optionOrder, position));
+            }
+
+            @Override
+            public int size() {
+                return options.size();
+            }
+        };
+    }
+
+    public boolean isCorrect(int selectedPosition) {
+        int optionCount = question.getOptions().size();
+        if (selectedPosition < 0 || selectedPosition >= optionCount) {
+            return false;
+        }
+        return question.isCorrect(originalIndex(optionOrder, selectedPosition));
+    }
+
+    public Question getQuestion() {
+        return question;
+    }
+
+    /**
+     * Draws a uniformly random order for {@code optionCount} options (Fisher–Yates over the packed nibbles).
+     */
+    public static long randomOrder(int optionCount, Random random) {
+        if (optionCount < 2 || optionCount > MAX_SHUFFLED_OPTIONS) {
+            return IDENTITY_ORDER;
+        }
+        long order = 0L;
+        for (int i = 0; i < optionCount; i++) {
+            order |= ((long) i) << (4 * i);
+        }
+        for (int i = optionCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long atI = (order >>> (4 * i)) & 0xF;
+            long atJ = (order >>> (4 * j)) & 0xF;
+            order &= ~((0xFL << (4 * i)) | (0xFL << (4 * j)));
+            order |= (atJ << (4 * i)) | (atI << (4 * j));
+        }
+        return order;
+    }
+
+    /**
+     * @return the index in {@link Question#getOptions()} of the option shown at {@code position}
+     */
+    public static int originalIndex(long optionOrder, int position) {
+        if (optionOrder == IDENTITY_ORDER) {
+            return position;
+        }
+        return (int) ((optionOrder >>> (4 * position)) & 0xF);
+    }
+}
@@ -0,0 +1,67 @@
+package utcn.isp.quizapp.model;
+
+public class WriteQueueStats {
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long recordsWritten;
+    private final long batchesWritten;
+    private final int maxBatchSize;
+    private final long producerWaits;  // Records whose producer found the queue full and had to wait
+    private final long droppedRecords; // Records left out of the journal after waiting too long for room
+    private final long failedBatches;  // Write attempts that failed and were retried
+    private final double lastBatchMillis; // Write plus fsync of the most recent batch
+
+    public WriteQueueStats(int queueDepth, int queueCapacity, long recordsWritten, long batchesWritten,
+                           int maxBatchSize, long producerWaits, long droppedRecords, long failedBatches,
+                           double lastBatchMillis) {
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.recordsWritten = recordsWritten;
+        this.batchesWritten = batchesWritten;
+        this.maxBatchSize = maxBatchSize;
+        this.producerWaits = producerWaits;
+        this.droppedRecords = droppedRecords;
+        this.failedBatches = failedBatches;
+        this.lastBatchMillis = lastBatchMillis;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten;
+    }
+
+    public double getAverageBatchSize() {
+        return (batchesWritten == 0) ? 0.0 : (double) recordsWritten / batchesWritten;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getProducerWaits() {
+        return producerWaits;
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords;
+    }
+
+    public long getFailedBatches() {
+        return failedBatches;
+    }
+
+    public double getLastBatchMillis() {
+        return lastBatchMillis;
+    }
+}
@@ -1,30 +1,289 @@
 package utcn.isp.quizapp.service;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import utcn.isp.quizapp.model.CompletedQuiz;
 import utcn.isp.quizapp.model.QuizGame;
 
+import java.text.SimpleDateFormat;
 import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Games currently being played, keyed by HTTP session id, and the place where a game's result is recorded.
+ * <p>
+ * A game normally ends through {@link #finishGame} when the player reaches the game-over page. A game
+ * whose time runs out without that is finished by the server: every game's deadline is kept in one
+ * {@link DeadlineScheduler}, and {@code quiz.sessions.finish-grace-seconds} after the deadline the game is
+ * recorded by the server: as abandoned when the player sent no request for the game during the last
+ * {@code quiz.sessions.abandon-idle-seconds} before the deadline (typically a closed tab), otherwise as timed
+ * out. Either way {@link QuizGame#finish} lets only one of them record it. The deadline
+ * thread only claims the result; writing it to the leaderboard and the results log is handed to a small
+ * pool, so one slow write does not hold back the deadlines of every other game. A game whose
+ * HTTP session is destroyed before its deadline (this class is registered as an {@link HttpSessionListener})
+ * is recorded as abandoned right away.
+ */
 @Service
-public class ActiveSessionsService {
+public class ActiveSessionsService implements HttpSessionListener {
 
-    private final Map<String, QuizGame> activeSessions = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(ActiveSessionsService.class);
+    private static final int RECORDER_THREADS = 4;
 
-    public void addSession(String sessionId, QuizGame game) {
-        activeSessions.put(sessionId, game);
+    private final Map<String, TrackedGame> activeSessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextKey = new AtomicLong();
+    private final AtomicLong timedOutGames = new AtomicLong();
+    private final AtomicLong abandonedGames = new AtomicLong();
+    private final DashboardEventsService dashboardEvents;
+    private final Leaderboard leaderboard;
+    private final CompletedQuizService completedQuizService;
+    private final GameMetrics gameMetrics;
+    private final long finishGraceMillis;
+    private final long abandonIdleMillis;
+    private final DeadlineScheduler<TrackedGame> deadlines;
+    private final ExecutorService recorder = Executors.newFixedThreadPool(RECORDER_THREADS,
+            Thread.ofPlatform().name("game-recorder-", 1).daemon().factory());
+
+    // The dashboard identifies rows by key; HTTP session ids are never sent to the browser
+    private static final class TrackedGame {
+        private final long key;
+        private final String sessionId;
+        private final QuizGame game;
+        private volatile long deadlineMillis; // Moves when bonus time is earned
+        private volatile long lastSeenMillis; // Latest request of the player for this game
+
+        private TrackedGame(long key, String sessionId, QuizGame game, long deadlineMillis) {
+            this.key = key;
+            this.sessionId = sessionId;
+            this.game = game;
+            this.deadlineMillis = deadlineMillis;
+            this.lastSeenMillis = System.currentTimeMillis();
+        }
+    }
+
+    public ActiveSessionsService(DashboardEventsService dashboardEvents,
+                                 Leaderboard leaderboard,
+                                 CompletedQuizService completedQuizService,
+                                 GameMetrics gameMetrics,
+                                 MeterRegistry registry,
+                                 @Value("${quiz.sessions.finish-grace-seconds:5}") long finishGraceSeconds,
+                                 @Value("${quiz.sessions.abandon-idle-seconds:30}") long abandonIdleSeconds) {
+        this.dashboardEvents = dashboardEvents;
+        this.leaderboard = leaderboard;
+        this.completedQuizService = completedQuizService;
+        this.gameMetrics = gameMetrics;
+        this.finishGraceMillis = Math.max(0L, finishGraceSeconds) * 1000L;
+        this.abandonIdleMillis = Math.max(0L, abandonIdleSeconds) * 1000L;
+        this.deadlines = new DeadlineScheduler<>("game-deadlines", this::deadlinePassed);
+        Gauge.builder("quiz.sessions.active", activeSessions, Map::size)
+                .description("Games being played")
+                .register(registry);
+        Gauge.builder("quiz.deadlines.pending", deadlines, DeadlineScheduler::size)
+                .description("Game deadlines waiting in the scheduler, including those of games already finished")
+                .register(registry);
+        FunctionCounter.builder("quiz.games.ended", timedOutGames, AtomicLong::get)
+                .description("Games ended by the server, without reaching the game-over page")
+                .tag("outcome", "timed-out")
+                .register(registry);
+        FunctionCounter.builder("quiz.games.ended", abandonedGames, AtomicLong::get)
+                .description("Games ended by the server, without reaching the game-over page")
+                .tag("outcome", "abandoned")
+                .register(registry);
+    }
+
+    /**
+     * @param deadlineMillis time after which the game takes no more answers
+     */
+    public void addSession(String sessionId, QuizGame game, long deadlineMillis) {
+        TrackedGame tracked = new TrackedGame(nextKey.incrementAndGet(), sessionId, game, deadlineMillis);
+        TrackedGame replaced = activeSessions.put(sessionId, tracked);
+        if (replaced != null) {
+            dashboardEvents.publish("session-ended", Map.of("key", replaced.key));
+        }
+        deadlines.schedule(tracked, deadlineMillis + finishGraceMillis);
+        dashboardEvents.publish("session-started", describe(tracked));
+    }
+
+    /**
+     * Called after the game of {@code sessionId} changed, e.g. an answer was submitted.
+     *
+     * @param deadlineMillis the game's deadline, which bonus time may have moved
+     */
+    public void sessionUpdated(String sessionId, long deadlineMillis) {
+        TrackedGame tracked = activeSessions.get(sessionId);
+        if (tracked != null) {
+            tracked.lastSeenMillis = System.currentTimeMillis();
+            tracked.deadlineMillis = deadlineMillis; // The scheduler picks it up when the old deadline passes
+            dashboardEvents.publish("session-updated", describe(tracked));
+        }
+    }
+
+    /**
+     * Records {@code game} on the leaderboard and in the completed results, unless the deadline scheduler
+     * already did, and stops tracking it.
+     *
+     * @return the game's result, whoever recorded it
+     */
+    public CompletedQuiz finishGame(String sessionId, QuizGame game) {
+        TrackedGame tracked = activeSessions.get(sessionId);
+        long endMillis = System.currentTimeMillis();
+        if (tracked != null && tracked.game == game) {
+            endMillis = Math.min(endMillis, tracked.deadlineMillis);
+            if (activeSessions.remove(sessionId, tracked)) {
+                dashboardEvents.publish("session-ended", Map.of("key", tracked.key));
+            }
+        }
+        CompletedQuiz result = game.finish(endMillis);
+        if (result != null) {
+            record(result, false); // On the player's request: the game-over page shows the recorded result
+        }
+        return game.getResult();
+    }
+
+    /**
+     * Called when the player of {@code sessionId} looks at the current question, so a player who is still
+     * there is not taken for one who left.
+     */
+    public void sessionSeen(String sessionId) {
+        TrackedGame tracked = activeSessions.get(sessionId);
+        if (tracked != null) {
+            tracked.lastSeenMillis = System.currentTimeMillis();
+        }
     }
 
     public void removeSession(String sessionId) {
-        activeSessions.remove(sessionId);
+        TrackedGame removed = activeSessions.remove(sessionId);
+        if (removed != null) {
+            dashboardEvents.publish("session-ended", Map.of("key", removed.key));
+        }
+    }
+
+    /**
+     * The session of an unfinished game went away before its deadline: the game is abandoned.
+     */
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        TrackedGame removed = activeSessions.remove(event.getSession().getId());
+        if (removed != null) {
+            finishByServer(removed, Math.min(System.currentTimeMillis(), removed.deadlineMillis), true);
+        }
+    }
+
+    // Runs on the deadline thread
+    private void deadlinePassed(TrackedGame tracked) {
+        long due = tracked.deadlineMillis + finishGraceMillis;
+        if (due > System.currentTimeMillis()) {
+            deadlines.schedule(tracked, due); // Bonus time moved the deadline
+            return;
+        }
+        // remove(key, value): a game finished, replaced or abandoned meanwhile is no longer there
+        if (activeSessions.remove(tracked.sessionId, tracked)) {
+            finishByServer(tracked, tracked.deadlineMillis, tracked.deadlineMillis - tracked.lastSeenMillis > abandonIdleMillis);
+        }
+    }
+
+    private void finishByServer(TrackedGame tracked, long endMillis, boolean abandoned) {
+        CompletedQuiz result = tracked.game.finish(endMillis);
+        if (result != null) {
+            if (abandoned) {
+                publishEnded(tracked, "abandoned", "abandonedGames", abandonedGames.incrementAndGet());
+            } else {
+                publishEnded(tracked, "timed-out", "timedOutGames", timedOutGames.incrementAndGet());
+            }
+            recorder.execute(() -> {
+                try {
+                    record(result, true);
+                } catch (RuntimeException e) {
+                    logger.error("Could not record the unfinished game of '{}'", result.getUserName(), e);
+                }
+            });
+        }
+    }
+
+    // Called once per game, by whoever finished it
+    private void record(CompletedQuiz result, boolean timedOut) {
+        leaderboard.addScore(result.getUserName(), result.getScore());
+        completedQuizService.addCompletedQuiz(result);
+        gameMetrics.gameRecorded(result, timedOut);
+    }
+
+    private void publishEnded(TrackedGame tracked, String outcome, String counterName, long count) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("key", tracked.key);
+        event.put("outcome", outcome);
+        event.put(counterName, count);
+        dashboardEvents.publish("session-ended", event);
     }
 
     public Collection<QuizGame> getActiveSessions() {
-        return activeSessions.values();
+        return activeSessions.values().stream().map(tracked -> tracked.game).toList();
     }
 
     public int getActiveSessionCount() {
         return activeSessions.size();
     }
+
+    /**
+     * @return games recorded by the server because their time ran out while the player was still active, since startup
+     */
+    public long getTimedOutGameCount() {
+        return timedOutGames.get();
+    }
+
+    /**
+     * @return games recorded by the server after the player went away, since startup
+     */
+    public long getAbandonedGameCount() {
+        return abandonedGames.get();
+    }
+
+    public int getPendingDeadlineCount() {
+        return deadlines.size();
+    }
+
+    /**
+     * @return one entry per active game in the form sent to the dashboard
+     */
+    public List<Map<String, Object>> describeActiveSessions() {
+        return activeSessions.values().stream().map(ActiveSessionsService::describe).toList();
+    }
+
+    private static Map<String, Object> describe(TrackedGame tracked) {
+        QuizGame game = tracked.game;
+        Map<String, Object> session = new LinkedHashMap<>();
+        session.put("key", tracked.key);
+        session.put("userName", game.getUserName());
+        session.put("score", game.getCurrentScore());
+        session.put("answered", game.getCurrentQuestionIndex());
+        session.put("startTime", new SimpleDateFormat("HH:mm:ss dd-MM-yyyy").format(new Date(game.getStartTime())));
+        return session;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        deadlines.shutdown();
+        recorder.shutdown(); // Finish recording games already claimed, before the leaderboard closes
+        try {
+            if (!recorder.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.error("Timed out recording finished games at shutdown.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
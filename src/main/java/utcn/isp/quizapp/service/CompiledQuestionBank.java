@@ -0,0 +1,298 @@
+package utcn.isp.quizapp.service;
+
+import utcn.isp.quizapp.model.Difficulty;
+import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.ShuffledQuestion;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Compiled, memory-mapped question bank format.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ *   int    magic "QBNK"
+ *   int    format version
+ *   int    question count N
+ *   long   index section offset, from the start of the file
+ *   long[] N record offsets, from the start of the file
+ *   record: byte correct option index, byte option count K, byte difficulty ordinal,
+ *           then K + 3 strings (category, comma-separated tags, question text, options),
+ *           each an int byte length followed by UTF-8 bytes
+ *   index section, up to the end of the file:
+ *           ids by difficulty,
+ *           int category count, then per category: display name, ids, ids by difficulty,
+ *           int tag count, then per tag: lower-case tag, ids, ids by difficulty
+ *           where "ids" is an int count followed by that many int question ids in ascending order,
+ *           and "ids by difficulty" is one such array per difficulty, in ordinal order
+ * </pre>
+ * {@link #open(Path)} maps the file and returns a list that decodes a {@link Question} only when it is
+ * accessed, so startup cost and heap use do not grow with the bank. The {@link QuestionIndex} is read
+ * from the index section rather than rebuilt from the records. The compiler writes to a temporary
+ * file and renames it over the target, so a bank that is still mapped by a running instance is never
+ * modified in place.
+ * <p>
+ * Usage: {@code java -cp <classpath> utcn.isp.quizapp.service.CompiledQuestionBank questions.txt questions.qbank}
+ */
+public final class CompiledQuestionBank {
+
+    private static final int MAGIC = 0x51424E4B; // "QBNK"
+    private static final int FORMAT_VERSION = 3;
+    private static final int RECORD_PREFIX_BYTES = 3; // correct index, option count, difficulty
+    private static final int METADATA_STRINGS = 2;     // category, tags
+    private static final int HEADER_BYTES = 20;
+
+    private CompiledQuestionBank() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompiledQuestionBank <questions.txt> <output.qbank>");
+            System.exit(2);
+        }
+        Path source = Paths.get(args[0]);
+        Path target = Paths.get(args[1]);
+        List<Question> questions = QuestionLoader.loadQuestionsFromFile(source);
+        if (questions.isEmpty()) {
+            System.err.println("No valid questions found in " + source);
+            System.exit(1);
+        }
+        compile(questions, target);
+        System.out.println("Compiled " + questions.size() + " questions into " + target);
+    }
+
+    /**
+     * @return true if {@code file} starts with the compiled bank magic number
+     */
+    public static boolean isCompiledBank(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = in.readNBytes(4);
+            return header.length == 4 && ByteBuffer.wrap(header).getInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static void compile(List<Question> questions, Path target) throws IOException {
+        Path absoluteTarget = target.toAbsolutePath();
+        Path temp = absoluteTarget.resolveSibling(absoluteTarget.getFileName() + ".tmp");
+        try {
+            long[] offsets = new long[questions.size()];
+            long position = HEADER_BYTES + 8L * questions.size();
+            List<byte[][]> encoded = new ArrayList<>(questions.size());
+            for (int i = 0; i < questions.size(); i++) {
+                byte[][] strings = encode(questions.get(i));
+                encoded.add(strings);
+                offsets[i] = position;
+                position += RECORD_PREFIX_BYTES;
+                for (byte[] string : strings) {
+                    position += 4 + string.length;
+                }
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(questions.size());
+                out.writeLong(position); // The index section follows the last record
+                for (long offset : offsets) {
+                    out.writeLong(offset);
+                }
+                for (int i = 0; i < questions.size(); i++) {
+                    Question question = questions.get(i);
+                    byte[][] strings = encoded.get(i);
+                    out.writeByte(correctIndexOf(question));
+                    out.writeByte(strings.length - 1 - METADATA_STRINGS);
+                    out.writeByte(question.getDifficulty().ordinal());
+                    for (byte[] string : strings) {
+                        out.writeInt(string.length);
+                        out.write(string);
+                    }
+                }
+                new QuestionIndex(questions).writeTo(out);
+            }
+            Files.move(temp, absoluteTarget, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps a compiled bank and checks it: the header, the offset table, the layout of every record (option
+     * count, correct index and string lengths, without decoding any text) and the index section. A damaged
+     * bank is rejected here with an IOException instead of failing when a game reaches the bad record.
+     */
+    public static List<Question> open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Compiled question bank larger than 2 GB is not supported: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Mapping outlives the channel
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a compiled question bank: " + file);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported compiled question bank version " + buffer.getInt(4) + ": " + file);
+        }
+        int count = buffer.getInt(8);
+        long indexOffset = buffer.getLong(12);
+        long recordsStart = HEADER_BYTES + 8L * count;
+        if (count < 0 || indexOffset < recordsStart || indexOffset > buffer.capacity()) {
+            throw new IOException("Corrupt compiled question bank offset table: " + file);
+        }
+        long previousEnd = recordsStart;
+        for (int i = 0; i < count; i++) {
+            long offset = buffer.getLong(HEADER_BYTES + 8 * i);
+            long end = (i + 1 < count) ? buffer.getLong(HEADER_BYTES + 8 * (i + 1)) : indexOffset;
+            if (offset < previousEnd || end > indexOffset) {
+                throw new IOException("Corrupt compiled question bank offset of question " + i + ": " + file);
+            }
+            String problem = checkRecord(buffer, (int) offset, (int) end);
+            if (problem != null) {
+                throw new IOException("Corrupt compiled question bank record of question " + i + " (" + problem + "): " + file);
+            }
+            previousEnd = end;
+        }
+        MappedQuestionList questions = new MappedQuestionList(buffer, count);
+        questions.index = new QuestionIndex(questions, buffer.slice((int) indexOffset, buffer.capacity() - (int) indexOffset));
+        return questions;
+    }
+
+    /**
+     * @return what is wrong with the record between {@code start} and {@code end}, or null if it can be decoded
+     */
+    private static String checkRecord(ByteBuffer buffer, int start, int end) {
+        if (end - start < RECORD_PREFIX_BYTES) {
+            return "too short";
+        }
+        int correctIndex = buffer.get(start);
+        int optionCount = buffer.get(start + 1);
+        int difficulty = buffer.get(start + 2);
+        if (optionCount < 2 || optionCount > ShuffledQuestion.MAX_SHUFFLED_OPTIONS) {
+            return "option count " + optionCount;
+        }
+        if (correctIndex < 0 || correctIndex >= optionCount) {
+            return "correct option " + correctIndex + " of " + optionCount;
+        }
+        if (difficulty < 0 || difficulty >= Difficulty.values().length) {
+            return "difficulty " + difficulty;
+        }
+        long position = start + RECORD_PREFIX_BYTES;
+        for (int i = 0; i < METADATA_STRINGS + 1 + optionCount; i++) {
+            if (position + 4 > end) {
+                return "string " + i + " past the end of the record";
+            }
+            int length = buffer.getInt((int) position);
+            if (length < 0 || position + 4 + length > end) {
+                return "string " + i + " length " + length;
+            }
+            position += 4 + length;
+        }
+        return null;
+    }
+
+    private static byte[][] encode(Question question) {
+        List<String> options = question.getOptions();
+        if (options.size() < 2 || options.size() > ShuffledQuestion.MAX_SHUFFLED_OPTIONS) {
+            throw new IllegalArgumentException("Expected 2 to " + ShuffledQuestion.MAX_SHUFFLED_OPTIONS
+                    + " options for question: " + question.getQuestionText());
+        }
+        byte[][] strings = new byte[METADATA_STRINGS + 1 + options.size()][];
+        strings[0] = question.getCategory().getBytes(StandardCharsets.UTF_8);
+        strings[1] = String.join(",", question.getTags()).getBytes(StandardCharsets.UTF_8);
+        strings[2] = question.getQuestionText().getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < options.size(); i++) {
+            strings[METADATA_STRINGS + 1 + i] = options.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static int correctIndexOf(Question question) {
+        for (int i = 0; i < question.getOptions().size(); i++) {
+            if (question.isCorrect(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class MappedQuestionList extends AbstractList<Question>
+            implements RandomAccess, QuestionIndex.Prebuilt {
+        private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+
+        private final ByteBuffer buffer;
+        private final int count;
+        private QuestionIndex index; // Set once by open(), before the list is published
+
+        private MappedQuestionList(ByteBuffer buffer, int count) {
+            this.buffer = buffer;
+            this.count = count;
+        }
+
+        @Override
+        public Question get(int index) {
+            int position = recordPosition(index);
+            int correctIndex = buffer.get(position);
+            int optionCount = buffer.get(position + 1);
+            Difficulty difficulty = difficultyAt(position);
+            position += RECORD_PREFIX_BYTES;
+            String[] strings = new String[METADATA_STRINGS + 1 + optionCount];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = stringAt(position);
+                position += 4 + buffer.getInt(position);
+            }
+            List<String> options = Arrays.asList(strings).subList(METADATA_STRINGS + 1, strings.length);
+            return new Question(strings[2], options, correctIndex, strings[0], difficulty, splitTags(strings[1]));
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public QuestionIndex getIndex() {
+            return index;
+        }
+
+        // Absolute reads only, so concurrent sessions can decode from the shared buffer
+        private int recordPosition(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Question " + index + " of " + count);
+            }
+            return Math.toIntExact(buffer.getLong(HEADER_BYTES + 8 * index));
+        }
+
+        private Difficulty difficultyAt(int recordPosition) {
+            return DIFFICULTIES[buffer.get(recordPosition + 2)]; // Range checked by open()
+        }
+
+        private String stringAt(int position) {
+            byte[] bytes = new byte[buffer.getInt(position)];
+            buffer.get(position + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static List<String> splitTags(String joined) {
+            return joined.isEmpty() ? List.of() : Arrays.asList(joined.split(","));
+        }
+    }
+}
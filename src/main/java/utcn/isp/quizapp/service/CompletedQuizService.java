@@ -1,87 +1,279 @@
 package utcn.isp.quizapp.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import utcn.isp.quizapp.model.CompletedQuiz;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
 
+/**
+ * Keeps the most recent completed quizzes in a fixed-size ring buffer and maintains running totals
+ * over every quiz ever recorded, so adding a result and reading the dashboard aggregates are O(1)
+ * regardless of how many games have been played.
+ * <p>
+ * Every result is also appended to a day-segmented {@link ResultsLog} under {@code quiz.results.log-dir}.
+ * At startup past days contribute their cached totals and only as many recent records as the ring holds
+ * are streamed back in; older days are read from disk only when the dashboard asks for them.
+ * New results are pushed to open dashboards through {@link DashboardEventsService}.
+ */
 @Service
 public class CompletedQuizService {
 
-    private final List<CompletedQuiz> completedQuizzes = new CopyOnWriteArrayList<>();
-    private final String leaderboardFilePath;
+    private static final Logger logger = LoggerFactory.getLogger(CompletedQuizService.class);
+    private static final DateTimeFormatter COMPLETION_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss dd-MM-yyyy");
 
-    // Inject the path from application.properties
-    public CompletedQuizService(@Value("${quiz.leaderboard.save-path:leaderboard_data.txt}") String leaderboardFilePath) {
-        this.leaderboardFilePath = leaderboardFilePath;
+    private final String logDirectory; // empty keeps results in memory only
+    private final long windowMinutes; // 0 lists everything still in the ring
+
+    private final Object lock = new Object();
+    private final CompletedQuiz[] recent;   // guarded by lock
+    private int next;                       // guarded by lock, slot for the next insert
+    private int size;                       // guarded by lock
+    private long completedCount;            // guarded by lock, running totals over all results
+    private long totalQuestions;            // guarded by lock
+    private long totalAnswered;             // guarded by lock
+    private double totalAccuracyPercentage; // guarded by lock
+    private long totalDurationSeconds;      // guarded by lock
+    private ResultsLog resultsLog;          // null when persistence is disabled or could not be opened
+    private final DashboardEventsService dashboardEvents;
+
+    public CompletedQuizService(DashboardEventsService dashboardEvents,
+                                @Value("${quiz.results.log-dir:./results}") String logDirectory,
+                                @Value("${quiz.results.capacity:1000}") int capacity,
+                                @Value("${quiz.results.window-minutes:0}") long windowMinutes) {
+        this.dashboardEvents = dashboardEvents;
+        this.logDirectory = logDirectory;
+        this.recent = new CompletedQuiz[Math.max(1, capacity)];
+        this.windowMinutes = Math.max(0L, windowMinutes);
     }
 
     @PostConstruct
-    public void loadInitialLeaderboardData() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(leaderboardFilePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(":");
-                if (parts.length == 2) {
-                    String userName = parts[0].trim();
-                    int score = Integer.parseInt(parts[1].trim());
-                    completedQuizzes.add(new CompletedQuiz(userName, score));
+    public void loadHistory() {
+        if (logDirectory == null || logDirectory.isBlank()) {
+            return;
+        }
+        try {
+            resultsLog = new ResultsLog(logDirectory);
+            List<LocalDate> days = resultsLog.listDays();
+            LocalDate today = LocalDate.now();
+            ResultsLog.Summary totals = new ResultsLog.Summary();
+            Deque<CompletedQuiz> newest = new ArrayDeque<>(recent.length);
+            for (int i = days.size() - 1; i >= 0; i--) { // Newest day first, so the ring fills from the end
+                LocalDate day = days.get(i);
+                boolean sealed = day.isBefore(today);
+                int wanted = recent.length - newest.size();
+                if (sealed && wanted == 0) {
+                    totals.add(resultsLog.summaryFor(day));
+                    continue;
+                }
+                ResultsLog.Summary dayTotals = new ResultsLog.Summary();
+                Deque<CompletedQuiz> dayTail = new ArrayDeque<>();
+                resultsLog.streamDay(day, quiz -> {
+                    dayTotals.add(quiz);
+                    dayTail.addLast(quiz);
+                    if (dayTail.size() > wanted) {
+                        dayTail.removeFirst();
+                    }
+                });
+                totals.add(dayTotals); // Already streamed, no need for the sidecar
+                for (Iterator<CompletedQuiz> it = dayTail.descendingIterator(); it.hasNext(); ) {
+                    newest.addFirst(it.next());
+                }
+            }
+            synchronized (lock) {
+                for (CompletedQuiz quiz : newest) {
+                    remember(quiz);
                 }
+                completedCount += totals.count;
+                totalQuestions += totals.totalQuestions;
+                totalAnswered += totals.totalAnswered;
+                totalAccuracyPercentage += totals.totalAccuracyPercentage;
+                totalDurationSeconds += totals.totalDurationSeconds;
             }
-        } catch (IOException | NumberFormatException e) {
-            System.err.println("Error loading initial leaderboard data into CompletedQuizService: " + e.getMessage());
+        } catch (IOException e) {
+            logger.error("Error opening results log in {}, results will not be persisted", logDirectory, e);
+            resultsLog = null;
+        }
+    }
+
+    @PreDestroy
+    public void closeHistory() {
+        if (resultsLog == null) {
+            return;
+        }
+        try {
+            resultsLog.close();
+        } catch (IOException e) {
+            logger.error("Error closing results log", e);
         }
     }
 
     public void addCompletedQuiz(CompletedQuiz quiz) {
-        this.completedQuizzes.add(0, quiz); // Add to the beginning to show newest first
+        Map<String, Object> event = new LinkedHashMap<>();
+        synchronized (lock) {
+            remember(quiz);
+            completedCount++;
+            totalQuestions += quiz.getTotalQuestions();
+            totalAnswered += quiz.getAnsweredQuestions();
+            totalAccuracyPercentage += quiz.getAccuracyPercentage();
+            totalDurationSeconds += quiz.getDurationSeconds();
+            event.put("aggregates", describeAggregatesLocked());
+        }
+        event.put("quiz", describe(quiz));
+        dashboardEvents.publish("quiz-completed", event);
+        if (resultsLog != null) {
+            try {
+                resultsLog.append(quiz);
+            } catch (IOException e) {
+                logger.error("Error appending to results log", e);
+            }
+        }
     }
 
+    /**
+     * @return the running totals in the form sent to the dashboard
+     */
+    public Map<String, Object> describeAggregates() {
+        synchronized (lock) {
+            return describeAggregatesLocked();
+        }
+    }
+
+    // Caller holds lock
+    private Map<String, Object> describeAggregatesLocked() {
+        Map<String, Object> aggregates = new LinkedHashMap<>();
+        aggregates.put("completedCount", completedCount);
+        aggregates.put("totalQuestions", totalQuestions);
+        aggregates.put("totalAnswered", totalAnswered);
+        aggregates.put("averageAccuracy", (completedCount == 0) ? 0.0 : totalAccuracyPercentage / completedCount);
+        aggregates.put("averageDurationSeconds", (completedCount == 0) ? 0.0 : (double) totalDurationSeconds / completedCount);
+        return aggregates;
+    }
+
+    private static Map<String, Object> describe(CompletedQuiz quiz) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("userName", quiz.getUserName());
+        result.put("score", quiz.getScore());
+        result.put("totalQuestions", quiz.getTotalQuestions());
+        result.put("answeredQuestions", quiz.getAnsweredQuestions());
+        result.put("incorrectAnswers", quiz.getIncorrectAnswers());
+        result.put("accuracyPercentage", quiz.getAccuracyPercentage());
+        result.put("durationSeconds", quiz.getDurationSeconds());
+        result.put("completionTime", quiz.getCompletionTime().format(COMPLETION_TIME_FORMAT));
+        result.put("answerTimes", quiz.hasAnswerTimes()
+                ? List.of(quiz.getMedianAnswerMillis(), quiz.getP90AnswerMillis(), quiz.getP99AnswerMillis())
+                : null);
+        return result;
+    }
+
+    // Caller holds lock
+    private void remember(CompletedQuiz quiz) {
+        recent[next] = quiz; // Overwrites the oldest result once the ring is full
+        next = (next + 1) % recent.length;
+        size = Math.min(size + 1, recent.length);
+    }
+
+    /**
+     * @return the most recent results, newest first, limited by the ring capacity and the optional time window
+     */
     public List<CompletedQuiz> getCompletedQuizzes() {
-        return Collections.unmodifiableList(new ArrayList<>(completedQuizzes)); // Return a copy for safety
+        LocalDateTime cutoff = (windowMinutes > 0) ? LocalDateTime.now().minusMinutes(windowMinutes) : null;
+        List<CompletedQuiz> result;
+        synchronized (lock) {
+            result = new ArrayList<>(size);
+            for (int i = 1; i <= size; i++) {
+                CompletedQuiz quiz = recent[(next - i + recent.length) % recent.length];
+                if (cutoff != null && quiz.getCompletionTime().isBefore(cutoff)) {
+                    break; // Everything older follows
+                }
+                result.add(quiz);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return the days with stored results, newest first
+     */
+    public List<LocalDate> getHistoryDays() {
+        if (resultsLog == null) {
+            return Collections.emptyList();
+        }
+        try {
+            List<LocalDate> days = new ArrayList<>(resultsLog.listDays());
+            Collections.reverse(days);
+            return days;
+        } catch (IOException e) {
+            logger.error("Error listing results log", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Streams one day's segment from disk, keeping only its last {@code limit} results.
+     *
+     * @return that day's results, newest first
+     */
+    public List<CompletedQuiz> getCompletedQuizzes(LocalDate day, int limit) {
+        if (resultsLog == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Deque<CompletedQuiz> newest = new ArrayDeque<>();
+        try {
+            resultsLog.streamDay(day, quiz -> {
+                newest.addFirst(quiz);
+                if (newest.size() > limit) {
+                    newest.removeLast();
+                }
+            });
+        } catch (IOException e) {
+            logger.error("Error reading results for {}", day, e);
+        }
+        return List.copyOf(newest);
     }
 
     public int getCompletedQuizCount(){
-        return completedQuizzes.size();
+        synchronized (lock) {
+            return (int) completedCount;
+        }
     }
 
     public int getTotalQuestionsAsked() {
-        return completedQuizzes.stream()
-                .mapToInt(CompletedQuiz::getTotalQuestions)
-                .sum();
+        synchronized (lock) {
+            return (int) totalQuestions;
+        }
     }
 
     public int getTotalAnsweredQuestions() {
-        return completedQuizzes.stream()
-                .mapToInt(CompletedQuiz::getAnsweredQuestions)
-                .sum();
+        synchronized (lock) {
+            return (int) totalAnswered;
+        }
     }
 
     public double getAverageAccuracyPercentage() {
-        if (completedQuizzes.isEmpty()) {
-            return 0.0;
+        synchronized (lock) {
+            return (completedCount == 0) ? 0.0 : totalAccuracyPercentage / completedCount;
         }
-        double total = completedQuizzes.stream()
-                .mapToDouble(CompletedQuiz::getAccuracyPercentage)
-                .sum();
-        return total / completedQuizzes.size();
     }
 
     public double getAverageDurationSeconds() {
-        if (completedQuizzes.isEmpty()) {
-            return 0.0;
+        synchronized (lock) {
+            return (completedCount == 0) ? 0.0 : (double) totalDurationSeconds / completedCount;
         }
-        double total = completedQuizzes.stream()
-                .mapToDouble(CompletedQuiz::getDurationSeconds)
-                .sum();
-        return total / completedQuizzes.size();
     }
 }
@@ -0,0 +1,51 @@
+package utcn.isp.quizapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.util.function.Supplier;
+
+/**
+ * Pushes dashboard changes to every open dashboard as Server-Sent Events.
+ * <p>
+ * Services publish small deltas (a session started, answered or ended, a quiz completed, new
+ * aggregates). Each delta is serialized once and written to all subscribers from a single
+ * "dashboard-events" thread, so extra viewers cost one small write each instead of a full page render,
+ * and a slow viewer never holds up a game request. A new subscriber first receives a "snapshot" event
+ * on the same thread, which keeps it ordered with respect to the deltas that follow.
+ */
+@Service
+public class DashboardEventsService {
+
+    private final SseBroadcaster broadcaster;
+
+    public DashboardEventsService(ObjectMapper objectMapper) {
+        this.broadcaster = new SseBroadcaster("dashboard-events", objectMapper);
+    }
+
+    /**
+     * @param snapshot evaluated on the event thread, just before the subscriber starts receiving deltas
+     */
+    public SseEmitter subscribe(Supplier<Object> snapshot) {
+        return broadcaster.subscribe(() -> broadcaster.toJson(snapshot.get()));
+    }
+
+    /**
+     * Sends {@code payload} as JSON to all subscribers. The payload should be built from values copied on
+     * the calling thread, since it is serialized later on the event thread. Does nothing without subscribers.
+     */
+    public void publish(String eventName, Object payload) {
+        broadcaster.publish(eventName, payload);
+    }
+
+    public int getSubscriberCount() {
+        return broadcaster.getSubscriberCount();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        broadcaster.shutdown();
+    }
+}
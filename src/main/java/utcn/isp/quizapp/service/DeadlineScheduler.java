@@ -0,0 +1,75 @@
+package utcn.isp.quizapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hands each scheduled item to a callback once its deadline has passed, from a single daemon thread
+ * shared by all items. Deadlines wait in a {@link DelayQueue}: scheduling costs one O(log n) insert
+ * and nothing runs for an item until it is due. Items are not cancelled; a callback that finds its item
+ * already done (or its deadline pushed back) ignores it (or schedules it again).
+ */
+final class DeadlineScheduler<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineScheduler.class);
+
+    private final DelayQueue<Entry<T>> queue = new DelayQueue<>();
+    private final Consumer<T> onDeadline;
+    private final Thread thread;
+
+    private record Entry<T>(T item, long deadlineMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineMillis, ((Entry<?>) other).deadlineMillis);
+        }
+    }
+
+    DeadlineScheduler(String threadName, Consumer<T> onDeadline) {
+        this.onDeadline = onDeadline;
+        this.thread = new Thread(this::run, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void schedule(T item, long deadlineMillis) {
+        queue.put(new Entry<>(item, deadlineMillis));
+    }
+
+    /**
+     * @return deadlines not yet due, including those of items that were finished early
+     */
+    int size() {
+        return queue.size();
+    }
+
+    void shutdown() {
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (true) {
+            T item;
+            try {
+                item = queue.take().item();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                onDeadline.accept(item);
+            } catch (RuntimeException e) {
+                logger.error("Error handling deadline in {}", thread.getName(), e);
+            }
+        }
+    }
+}
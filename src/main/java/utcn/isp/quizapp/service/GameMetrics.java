@@ -0,0 +1,83 @@
+package utcn.isp.quizapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import utcn.isp.quizapp.model.CompletedQuiz;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the game flow, created once so the session-scoped {@link QuizSessionService} only holds a
+ * reference to this. HTTP latency per endpoint is recorded separately by Spring Boot as
+ * {@code http.server.requests}; these time the game logic behind it.
+ */
+@Component
+public class GameMetrics {
+
+    private final Timer startTimer;
+    private final Timer answerTimer;
+    private final Timer finishTimer;
+    private final Counter correctAnswers;
+    private final Counter incorrectAnswers;
+    private final DistributionSummary completedDuration;
+    private final DistributionSummary timedOutDuration;
+    private final DistributionSummary scores;
+
+    public GameMetrics(MeterRegistry registry) {
+        this.startTimer = Timer.builder("quiz.game.start")
+                .description("Dealing and registering a new game")
+                .register(registry);
+        this.answerTimer = Timer.builder("quiz.game.answer")
+                .description("Checking and recording one answer")
+                .register(registry);
+        this.finishTimer = Timer.builder("quiz.game.over")
+                .description("Recording a finished game on the leaderboard and in the results")
+                .register(registry);
+        this.correctAnswers = answerCounter(registry, "correct");
+        this.incorrectAnswers = answerCounter(registry, "incorrect");
+        this.completedDuration = durationSummary(registry, "completed");
+        this.timedOutDuration = durationSummary(registry, "timed-out");
+        this.scores = DistributionSummary.builder("quiz.game.score")
+                .description("Correct answers per finished game")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Counter answerCounter(MeterRegistry registry, String result) {
+        return Counter.builder("quiz.answers")
+                .description("Submitted answers")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    // outcome: "completed" when the player reached the game-over page, "timed-out" when the server finished the game
+    private static DistributionSummary durationSummary(MeterRegistry registry, String outcome) {
+        return DistributionSummary.builder("quiz.game.duration")
+                .description("Length of finished games")
+                .baseUnit("seconds")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    void gameStarted(long nanos) {
+        startTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void answerSubmitted(boolean correct, long nanos) {
+        answerTimer.record(nanos, TimeUnit.NANOSECONDS);
+        (correct ? correctAnswers : incorrectAnswers).increment();
+    }
+
+    void gameOverServed(long nanos) {
+        finishTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void gameRecorded(CompletedQuiz result, boolean timedOut) {
+        (timedOut ? timedOutDuration : completedDuration).record(result.getDurationSeconds());
+        scores.record(result.getScore());
+    }
+}
@@ -0,0 +1,81 @@
+package utcn.isp.quizapp.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in milliseconds in a fixed set of buckets, HdrHistogram style: values below
+ * {@code 2 * SUB_BUCKETS} get a bucket each, larger ones share {@value #SUB_BUCKETS} linear buckets per
+ * power of two. Quantiles are therefore accurate to about 1/{@value #SUB_BUCKETS} of the value, the size is
+ * fixed (256 counters, about 2 KB) however many values are recorded, and two sketches merge by adding their
+ * counters. Values above {@link #MAX_TRACKED_MILLIS} are counted as that value.
+ * <p>
+ * Recording is one lock-free counter increment, so threads may record while another one reads or merges;
+ * a reader then sees some of the concurrent values and not others.
+ */
+final class LatencySketch {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final long MAX_TRACKED_MILLIS = (1L << 19) - 1; // About 8.7 minutes; a game lasts one plus bonus time
+    private static final int BUCKET_COUNT = bucketOf(MAX_TRACKED_MILLIS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    void record(long millis) {
+        counts.incrementAndGet(bucketOf(Math.min(Math.max(0L, millis), MAX_TRACKED_MILLIS)));
+    }
+
+    /**
+     * Adds the values counted by {@code other} to this sketch.
+     */
+    void add(LatencySketch other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.99
+     * @return the middle of the bucket holding the value at that rank, or 0 when nothing was recorded
+     */
+    long valueAtQuantile(double quantile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return middleOf(i);
+            }
+        }
+        return middleOf(BUCKET_COUNT - 1);
+    }
+
+    static int bucketOf(long millis) {
+        if (millis < 2 * SUB_BUCKETS) {
+            return (int) millis;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(millis) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((millis >>> shift) - SUB_BUCKETS);
+    }
+
+    static long middleOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + ((1L << shift) - 1) / 2;
+    }
+}
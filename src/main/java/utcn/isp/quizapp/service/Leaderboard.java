@@ -1,10 +1,20 @@
 package utcn.isp.quizapp.service;
 
+import utcn.isp.quizapp.model.LeaderboardPage;
+import utcn.isp.quizapp.model.RankedUser;
 import utcn.isp.quizapp.model.User;
+import utcn.isp.quizapp.model.WriteQueueStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct; // For Spring Boot 3+
+import jakarta.annotation.PreDestroy;
 // import javax.annotation.PostConstruct; // For Spring Boot 2.x or Java EE
 import java.io.*;
 import java.nio.charset.StandardCharsets;
@@ -12,25 +22,94 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
 
 @Service
 public class Leaderboard {
+    private static final Logger logger = LoggerFactory.getLogger(Leaderboard.class);
+
     // Make scores thread-safe for web environment
     private Map<String, Integer> scores = new ConcurrentHashMap<>();
+    private final LeaderboardIndex index = new LeaderboardIndex(); // ranked view of scores, updated alongside it
+    private final AtomicLong version = new AtomicLong(); // bumped only when a stored score actually changes
+    private volatile Snapshot snapshot = new Snapshot(-1L, Collections.emptyList());
+    private volatile Export export = new Export(-1L, new byte[0]);
+
+    private record Snapshot(long version, List<User> users) {
+    }
+
+    private record Export(long version, byte[] content) {
+    }
     
     private final String leaderboardResourceName; // e.g., "leaderboard.txt" for classpath loading
     private final String leaderboardSavePath;   // e.g., "/path/to/external/leaderboard.txt" or "leaderboard-data.txt" for relative path
+    private final boolean journalEnabled;
+    private final long compactionIntervalSeconds;
+    private final int journalQueueCapacity;
+    private final int journalMaxBatch;
+    private LeaderboardJournal journal; // null when every score rewrites the whole save file
+    private ScheduledExecutorService compactionExecutor;
+    private final ReentrantLock saveLock = new ReentrantLock(); // Not synchronized: a virtual thread blocked in I/O would pin its carrier
+    private final Timer saveTimer;
+    private final Timer compactionTimer;
+    private final Timer journalBatchTimer;
 
     // Inject paths from application.properties
     public Leaderboard(@Value("${quiz.leaderboard.resource-name:leaderboard.txt}") String resourceName,
-                       @Value("${quiz.leaderboard.save-path:./leaderboard_scores.txt}") String savePath) {
+                       @Value("${quiz.leaderboard.save-path:./leaderboard_scores.txt}") String savePath,
+                       @Value("${quiz.leaderboard.journal.enabled:true}") boolean journalEnabled,
+                       @Value("${quiz.leaderboard.journal.compaction-interval-seconds:60}") long compactionIntervalSeconds,
+                       @Value("${quiz.leaderboard.journal.queue-capacity:10000}") int journalQueueCapacity,
+                       @Value("${quiz.leaderboard.journal.max-batch:1000}") int journalMaxBatch,
+                       MeterRegistry registry) {
         this.leaderboardResourceName = resourceName;
         this.leaderboardSavePath = savePath;
+        this.journalEnabled = journalEnabled;
+        this.compactionIntervalSeconds = Math.max(1L, compactionIntervalSeconds);
+        this.journalQueueCapacity = journalQueueCapacity;
+        this.journalMaxBatch = journalMaxBatch;
+        // Full rewrites only happen with the journal disabled; with it, compactions and journal batches do the I/O
+        this.saveTimer = Timer.builder("quiz.leaderboard.save")
+                .description("Rewriting the whole leaderboard file after a score, including waiting for the previous rewrite")
+                .register(registry);
+        this.compactionTimer = Timer.builder("quiz.leaderboard.compaction")
+                .description("Writing a leaderboard snapshot and discarding the journal it covers")
+                .register(registry);
+        this.journalBatchTimer = Timer.builder("quiz.leaderboard.journal.batch")
+                .description("Writing and forcing one batch of journal records")
+                .register(registry);
+        Gauge.builder("quiz.leaderboard.users", scores, Map::size)
+                .description("Users on the leaderboard")
+                .register(registry);
+        Gauge.builder("quiz.leaderboard.journal.queue", this, leaderboard -> journalStat(WriteQueueStats::getQueueDepth))
+                .description("Scores waiting for the journal writer")
+                .register(registry);
+        FunctionCounter.builder("quiz.leaderboard.journal.producer.waits", this,
+                        leaderboard -> journalStat(WriteQueueStats::getProducerWaits))
+                .description("Scores whose thread had to wait for room in the journal queue")
+                .register(registry);
+        FunctionCounter.builder("quiz.leaderboard.journal.dropped.records", this,
+                        leaderboard -> journalStat(WriteQueueStats::getDroppedRecords))
+                .description("Scores left out of the journal because the writer was stuck; they reach the next snapshot")
+                .register(registry);
+        FunctionCounter.builder("quiz.leaderboard.journal.failed.batches", this,
+                        leaderboard -> journalStat(WriteQueueStats::getFailedBatches))
+                .description("Journal batches that failed to write and were retried")
+                .register(registry);
+    }
+
+    private double journalStat(ToDoubleFunction<WriteQueueStats> stat) {
+        WriteQueueStats stats = getJournalStats();
+        return (stats != null) ? stat.applyAsDouble(stats) : 0;
     }
 
     @PostConstruct
-    private void initializeLeaderboard() {
+    void initializeLeaderboard() {
         loadLeaderboardFromClasspath();
         // Optionally, try to load from savePath if it exists and is more recent,
         // or merge, but for simplicity, classpath is the initial seed.
@@ -38,7 +117,60 @@ public class Leaderboard {
         // For now, we just load from classpath as initial state.
         // If leaderboardSavePath file exists, we could load it here to get persisted scores.
         loadLeaderboardFromFile(leaderboardSavePath);
+        if (journalEnabled) {
+            openJournal();
+        }
+    }
+
+    private void openJournal() {
+        LeaderboardJournal candidate = new LeaderboardJournal(leaderboardSavePath, journalQueueCapacity, journalMaxBatch, journalBatchTimer);
+        // Replay whatever the last run journalled after its final snapshot; max-merge makes replay idempotent.
+        loadLeaderboardFromFile(candidate.getRotatedJournalPath().toString());
+        loadLeaderboardFromFile(candidate.getJournalPath().toString());
+        try {
+            candidate.open();
+        } catch (IOException e) {
+            logger.error("Error opening leaderboard journal, falling back to full rewrites", e);
+            return;
+        }
+        journal = candidate;
+        compactionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactionExecutor.scheduleWithFixedDelay(this::compactJournal,
+                compactionIntervalSeconds, compactionIntervalSeconds, TimeUnit.SECONDS);
+    }
 
+    private void compactJournal() {
+        try {
+            compactionTimer.recordCallable(() -> {
+                journal.compact(scores);
+                return null;
+            });
+        } catch (Exception e) {
+            logger.error("Error compacting leaderboard journal into {}", leaderboardSavePath, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (journal == null) {
+            return;
+        }
+        compactionExecutor.shutdown();
+        try {
+            compactionExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compactJournal();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.error("Error closing leaderboard journal", e);
+        }
     }
     
     private void loadLeaderboardFromClasspath() {
@@ -56,7 +188,7 @@ public class Leaderboard {
 
     private void loadLeaderboardFromFile(String filePath) {
         if (!Files.exists(Paths.get(filePath))) {
-            System.out.println("Leaderboard save file not found, will be created: " + filePath);
+            System.out.println("Leaderboard file not found, will be created: " + filePath);
             return; 
         }
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
@@ -73,7 +205,7 @@ public class Leaderboard {
             if (parts.length == 2) {
                 try {
                     // Merge scores, keeping the highest if duplicates exist from different sources
-                    scores.merge(parts[0], Integer.parseInt(parts[1]), Integer::max);
+                    mergeScore(parts[0], Integer.parseInt(parts[1]));
                 } catch (NumberFormatException e) {
                     System.err.println("Skipping malformed line in leaderboard: " + line);
                 }
@@ -82,7 +214,9 @@ public class Leaderboard {
     }
 
 
-    private synchronized void saveLeaderboard() {
+    private void saveLeaderboard() {
+        long start = System.nanoTime();
+        saveLock.lock();
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(leaderboardSavePath, StandardCharsets.UTF_8))) {
             for (Map.Entry<String, Integer> entry : scores.entrySet()) {
                 writer.write(entry.getKey() + ":" + entry.getValue());
@@ -90,27 +224,130 @@ public class Leaderboard {
             }
         } catch (IOException e) {
             System.err.println("Error saving leaderboard to " + leaderboardSavePath + ": " + e.getMessage());
+        } finally {
+            saveLock.unlock();
+            saveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
-    public synchronized void addScore(String userName, int score) {
-        scores.merge(userName, score, Integer::max);
-        saveLeaderboard();
+    public void addScore(String userName, int score) {
+        int best = mergeScore(userName, score);
+        if (journal == null) {
+            saveLeaderboard();
+            return;
+        }
+        if (best != score) {
+            return; // Not an improvement, nothing new to persist
+        }
+        try {
+            journal.append(userName, score);
+        } catch (IOException e) {
+            logger.error("Error appending to leaderboard journal {}", journal.getJournalPath(), e);
+        }
+    }
+
+    // Keeps the highest score per user; the index is updated inside compute so updates for one user never interleave
+    private int mergeScore(String userName, int score) {
+        Integer current = scores.get(userName);
+        if (current != null && current >= score) {
+            return current; // Lock-free for the common case of a score that is not a new best
+        }
+        return scores.compute(userName, (name, previous) -> {
+            int best = (previous == null) ? score : Math.max(previous, score);
+            if (previous == null || previous != best) {
+                index.update(name, previous, best);
+                version.incrementAndGet();
+            }
+            return best;
+        });
+    }
+
+    /**
+     * @return statistics of the journal writer queue, or null when the journal is disabled
+     */
+    public WriteQueueStats getJournalStats() {
+        return (journal != null) ? journal.getStats() : null;
     }
 
     public List<User> getTopScores(int count) {
-        return scores.entrySet().stream()
-                .map(entry -> new User(entry.getKey(), entry.getValue()))
-                .sorted() // Uses User.compareTo for descending score
-                .limit(count)
-                .collect(Collectors.toList());
+        return index.top(count); // Descending score, ties by name
     }
 
+    /**
+     * @return an immutable, sorted snapshot shared by all callers until the next score change
+     */
     public List<User> getAllScoresSorted() {
-        return scores.entrySet().stream()
-                .map(entry -> new User(entry.getKey(), entry.getValue()))
-                .sorted()
-                .collect(Collectors.toList());
+        return currentSnapshot().users();
+    }
+
+    /**
+     * Changes whenever a score changes; suitable as a cache validator for anything rendered from the leaderboard.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @return the leaderboard in the save-file format ({@code name:score} per line), sorted, rendered once per version
+     */
+    public byte[] getExportContent() {
+        Export current = export;
+        Snapshot latest = currentSnapshot();
+        if (current.version() != latest.version()) {
+            StringBuilder content = new StringBuilder();
+            for (User user : latest.users()) {
+                content.append(user.getName()).append(':').append(user.getScore()).append(System.lineSeparator());
+            }
+            current = new Export(latest.version(), content.toString().getBytes(StandardCharsets.UTF_8));
+            export = current;
+        }
+        return current.content();
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        // Read the version before building: a concurrent change then only makes the next call rebuild again
+        long latestVersion = version.get();
+        if (current.version() != latestVersion) {
+            current = new Snapshot(latestVersion, Collections.unmodifiableList(index.all()));
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return 1-based rank of the user (users with equal scores share a rank), or -1 if the user has no score
+     */
+    public int getRank(String userName) {
+        Integer score = (userName != null) ? scores.get(userName) : null;
+        return (score != null) ? index.rankOf(score) : -1;
+    }
+
+    /**
+     * @param page 1-based page number, clamped to the valid range
+     */
+    public LeaderboardPage getPage(int page, int pageSize) {
+        int size = Math.max(1, pageSize);
+        int total = scores.size();
+        int lastPage = Math.max(1, (total + size - 1) / size);
+        int current = Math.min(Math.max(1, page), lastPage);
+        return new LeaderboardPage(index.range((current - 1) * size, size), current, size, total);
+    }
+
+    /**
+     * @return the user and up to {@code radius} players ranked directly above and below them,
+     *         or an empty list if the user has no score
+     */
+    public List<RankedUser> getScoresAround(String userName, int radius) {
+        Integer score = (userName != null) ? scores.get(userName) : null;
+        if (score == null) {
+            return Collections.emptyList();
+        }
+        return index.around(userName, score, Math.max(0, radius));
+    }
+
+    public int getUserCount() {
+        return scores.size();
     }
 
     public boolean hasUser(String userName) {
@@ -0,0 +1,278 @@
+package utcn.isp.quizapp.service;
+
+import utcn.isp.quizapp.model.RankedUser;
+import utcn.isp.quizapp.model.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranked view over the leaderboard scores, kept up to date on every score change.
+ * <p>
+ * Entries live in a skip list ordered by score (descending) then name, so updates are O(log N)
+ * and the top k entries are an O(k) walk from the head. The number of users per score is kept in a
+ * Fenwick tree over the distinct scores, which gives the competition rank of a user (1 + number of
+ * users with a strictly higher score) and the score at a given position in O(log D), D being the
+ * number of distinct scores (at most N).
+ * <p>
+ * Updates for the same user must be serialized by the caller (Leaderboard does them inside
+ * {@code ConcurrentHashMap.compute}); updates for different users only contend when a score nobody
+ * held before appears, which rebuilds the tree without the scores nobody holds any more. Reads are
+ * lock-free.
+ */
+class LeaderboardIndex {
+
+    private static final Comparator<Entry> RANK_ORDER = Comparator
+            .comparingInt(Entry::score).reversed()
+            .thenComparing(Entry::name);
+
+    private final ConcurrentSkipListSet<Entry> ranked = new ConcurrentSkipListSet<>(RANK_ORDER);
+    private final ReentrantReadWriteLock countsLock = new ReentrantReadWriteLock(); // Write lock only to rebuild
+    private volatile ScoreCounts counts = new ScoreCounts(new int[0], new int[0]);
+
+    private record Entry(String name, int score) {
+    }
+
+    /**
+     * Users per score for a fixed set of distinct scores. Counts are changed in place (holding the read
+     * lock); a score outside the set needs a new instance (holding the write lock).
+     */
+    private static final class ScoreCounts {
+        private final int[] scores;                 // Ascending
+        private final AtomicIntegerArray perScore;  // Users per score, same order
+        private final AtomicIntegerArray tree;      // Fenwick tree over perScore, 1-based
+
+        private ScoreCounts(int[] scores, int[] perScore) {
+            this.scores = scores;
+            this.perScore = new AtomicIntegerArray(perScore);
+            int[] tree = new int[scores.length + 1];
+            for (int i = 1; i <= scores.length; i++) {
+                tree[i] += perScore[i - 1];
+                int parent = i + (i & -i);
+                if (parent <= scores.length) {
+                    tree[parent] += tree[i];
+                }
+            }
+            this.tree = new AtomicIntegerArray(tree);
+        }
+
+        /**
+         * @return a copy that also has {@code score}, leaving out the scores nobody holds
+         */
+        private ScoreCounts with(int score) {
+            int[] newScores = new int[scores.length + 1];
+            int[] newCounts = new int[scores.length + 1];
+            int size = 0;
+            boolean added = false;
+            for (int i = 0; i < scores.length; i++) {
+                if (!added && score < scores[i]) {
+                    newScores[size++] = score;
+                    added = true;
+                }
+                int count = perScore.get(i);
+                if (count > 0) {
+                    newScores[size] = scores[i];
+                    newCounts[size++] = count;
+                }
+            }
+            if (!added) {
+                newScores[size++] = score;
+            }
+            return new ScoreCounts(Arrays.copyOf(newScores, size), Arrays.copyOf(newCounts, size));
+        }
+
+        private int slotOf(int score) {
+            return Arrays.binarySearch(scores, score);
+        }
+
+        private void add(int slot, int delta) {
+            perScore.addAndGet(slot, delta);
+            for (int i = slot + 1; i <= scores.length; i += i & -i) {
+                tree.addAndGet(i, delta);
+            }
+        }
+
+        /**
+         * @return the number of users with a score up to and including the one at {@code slot}
+         */
+        private int countThrough(int slot) {
+            int count = 0;
+            for (int i = slot + 1; i > 0; i -= i & -i) {
+                count += tree.get(i);
+            }
+            return count;
+        }
+
+        private int total() {
+            return countThrough(scores.length - 1);
+        }
+
+        private int countAbove(int score) {
+            int slot = slotOf(score);
+            int through = (slot >= 0) ? slot : -slot - 2; // Last slot below score when it is absent
+            return total() - countThrough(through);
+        }
+
+        /**
+         * @return the first slot through which at least {@code k} users are counted, or -1 if there is none
+         */
+        private int slotOfCount(int k) {
+            int position = 0;
+            int remaining = k;
+            for (int step = Integer.highestOneBit(Math.max(1, scores.length)); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next <= scores.length && tree.get(next) < remaining) {
+                    position = next;
+                    remaining -= tree.get(next);
+                }
+            }
+            return (position < scores.length) ? position : -1;
+        }
+    }
+
+    /**
+     * Moves {@code userName} from {@code oldScore} (null if the user is new) to {@code newScore}.
+     */
+    void update(String userName, Integer oldScore, int newScore) {
+        if (oldScore != null) {
+            if (oldScore == newScore) {
+                return;
+            }
+            ranked.remove(new Entry(userName, oldScore));
+            count(oldScore, -1);
+        }
+        count(newScore, 1);
+        ranked.add(new Entry(userName, newScore));
+    }
+
+    private void count(int score, int delta) {
+        countsLock.readLock().lock();
+        try {
+            ScoreCounts current = counts;
+            int slot = current.slotOf(score);
+            if (slot >= 0) {
+                current.add(slot, delta);
+                return;
+            }
+        } finally {
+            countsLock.readLock().unlock();
+        }
+        // Only for a user arriving at a score nobody holds; a user leaving a score always finds it
+        countsLock.writeLock().lock();
+        try {
+            ScoreCounts current = counts;
+            if (current.slotOf(score) < 0) {
+                current = current.with(score);
+                counts = current;
+            }
+            current.add(current.slotOf(score), delta);
+        } finally {
+            countsLock.writeLock().unlock();
+        }
+    }
+
+    List<User> top(int count) {
+        List<User> result = new ArrayList<>(Math.max(0, Math.min(count, 64)));
+        Iterator<Entry> iterator = ranked.iterator();
+        while (result.size() < count && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            result.add(new User(entry.name(), entry.score()));
+        }
+        return result;
+    }
+
+    List<User> all() {
+        List<User> result = new ArrayList<>(ranked.size());
+        for (Entry entry : ranked) {
+            result.add(new User(entry.name(), entry.score()));
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code limit} entries starting at 0-based position {@code offset}.
+     * The score at the offset is found in the Fenwick tree, so only the entries holding that
+     * score are walked before the page starts.
+     */
+    List<RankedUser> range(int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        ScoreCounts current = counts;
+        int total = current.total();
+        // Counted from the lowest score, the entry at the offset is number total - offset
+        int slot = (offset < total) ? current.slotOfCount(total - offset) : -1;
+        if (slot < 0) {
+            return Collections.emptyList();
+        }
+        int startScore = current.scores[slot];
+        int skipped = total - current.countThrough(slot);
+        Iterator<Entry> iterator = ranked.tailSet(new Entry("", startScore)).iterator();
+        int position = skipped;
+        while (position < offset && iterator.hasNext()) {
+            iterator.next();
+            position++;
+        }
+        List<RankedUser> result = new ArrayList<>(Math.min(limit, 64));
+        int rank = skipped + 1;
+        int lastScore = startScore;
+        while (result.size() < limit && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            position++;
+            if (entry.score() != lastScore) {
+                rank = position; // first entry of a lower bucket: everyone before it scored higher
+                lastScore = entry.score();
+            }
+            result.add(new RankedUser(rank, entry.name(), entry.score()));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the user holding {@code score} together with up to {@code radius} entries ranked
+     * directly above and below them.
+     */
+    List<RankedUser> around(String userName, int score, int radius) {
+        Entry self = new Entry(userName, score);
+        if (!ranked.contains(self)) {
+            return Collections.emptyList();
+        }
+        List<Entry> window = new ArrayList<>(2 * radius + 1);
+        Iterator<Entry> above = ranked.headSet(self, false).descendingIterator();
+        while (window.size() < radius && above.hasNext()) {
+            window.add(above.next());
+        }
+        Collections.reverse(window);
+        window.add(self);
+        Iterator<Entry> below = ranked.tailSet(self, false).iterator();
+        for (int i = 0; i < radius && below.hasNext(); i++) {
+            window.add(below.next());
+        }
+
+        List<RankedUser> result = new ArrayList<>(window.size());
+        int lastScore = Integer.MIN_VALUE;
+        int rank = 0;
+        for (Entry entry : window) {
+            if (entry.score() != lastScore) {
+                rank = rankOf(entry.score());
+                lastScore = entry.score();
+            }
+            result.add(new RankedUser(rank, entry.name(), entry.score()));
+        }
+        return result;
+    }
+
+    /**
+     * @return the 1-based competition rank of a user currently holding {@code score}
+     */
+    int rankOf(int score) {
+        return counts.countAbove(score) + 1;
+    }
+}
@@ -0,0 +1,293 @@
+package utcn.isp.quizapp.service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utcn.isp.quizapp.model.WriteQueueStats;
+
+/**
+ * Write-ahead journal for the leaderboard.
+ * <p>
+ * Every score is appended as a single {@code name:score} line (the same format as the snapshot file),
+ * so recovery is simply "replay snapshot, then rotated journal, then journal" with max-merge.
+ * Records go through a bounded queue to a single "leaderboard-writer" thread, which writes whatever
+ * has accumulated as one batch with one fsync. Callers therefore never wait for the disk, only for
+ * room in the queue when the writer falls that far behind; those waits are counted as backpressure.
+ * A caller waits at most {@value #MAX_PRODUCER_WAIT_MILLIS} ms, so a journal that cannot be written
+ * (e.g. a full disk) does not hang every game-over; the record is then dropped from the journal.
+ * A dropped record makes the next compaction write a snapshot even if the journal holds nothing new,
+ * so the score is not lost on restart. A record still queued when the process dies is lost from the
+ * journal, but not from the next snapshot if compaction ran after it was merged.
+ * Compaction rotates the journal under the commit lock and writes the new snapshot outside it,
+ * so the writer is never blocked by an O(N) rewrite.
+ */
+class LeaderboardJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardJournal.class);
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final Path rotatedJournalPath;
+
+    private static final String STOP = new String("stop"); // Compared by identity, never a real record
+    private static final long RETRY_MILLIS = 1000;
+    private static final long MAX_PRODUCER_WAIT_MILLIS = 2000;
+
+    private final BlockingQueue<String> queue;
+    private final int maxBatch;
+    private final Timer batchTimer;
+    private Thread writer;
+    private volatile boolean closed;
+
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private boolean journalHasRecords; // guarded by commitLock
+    private final AtomicBoolean recordsDropped = new AtomicBoolean(); // Scores only the next snapshot can save
+    private FileChannel channel;       // guarded by commitLock
+
+    // Statistics; all but producerWaits and droppedRecords are only written by the writer thread
+    private final LongAdder producerWaits = new LongAdder();
+    private final LongAdder droppedRecords = new LongAdder();
+    private volatile long recordsWritten;
+    private volatile long batchesWritten;
+    private volatile int maxBatchSize;
+    private volatile long failedBatches;
+    private volatile long lastBatchNanos;
+
+    /**
+     * @param batchTimer records the write and fsync of every batch
+     */
+    LeaderboardJournal(String snapshotFile, int queueCapacity, int maxBatch, Timer batchTimer) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.batchTimer = batchTimer;
+        this.snapshotPath = Paths.get(snapshotFile);
+        this.journalPath = Paths.get(snapshotFile + ".journal");
+        this.rotatedJournalPath = Paths.get(snapshotFile + ".journal.old");
+    }
+
+    Path getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    Path getJournalPath() {
+        return journalPath;
+    }
+
+    Path getRotatedJournalPath() {
+        return rotatedJournalPath;
+    }
+
+    void open() throws IOException {
+        commitLock.lock();
+        try {
+            channel = openJournalChannel();
+            journalHasRecords = channel.size() > 0 || Files.exists(rotatedJournalPath);
+        } finally {
+            commitLock.unlock();
+        }
+        writer = new Thread(this::writeLoop, "leaderboard-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a record for the writer thread. Returns immediately unless the queue is full, in which case
+     * the caller waits for room, but no longer than {@value #MAX_PRODUCER_WAIT_MILLIS} ms before dropping
+     * the record (the score stays in memory and reaches the next snapshot).
+     */
+    void append(String userName, int score) throws IOException {
+        if (closed) {
+            throw new IOException("Leaderboard journal is closed");
+        }
+        String record = userName + ":" + score + "\n";
+        if (!queue.offer(record)) {
+            producerWaits.increment();
+            try {
+                if (!queue.offer(record, MAX_PRODUCER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    droppedRecords.increment();
+                    recordsDropped.set(true); // After the score was merged, so the next snapshot includes it
+                    logger.error("Leaderboard journal writer is stuck, dropped the record for {} from {} (kept in memory until the next snapshot)",
+                            userName, journalPath);
+                }
+            } catch (InterruptedException e) {
+                recordsDropped.set(true);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the leaderboard writer");
+            }
+        }
+    }
+
+    WriteQueueStats getStats() {
+        return new WriteQueueStats(queue.size(), queue.size() + queue.remainingCapacity(), recordsWritten,
+                batchesWritten, maxBatchSize, producerWaits.sum(), droppedRecords.sum(), failedBatches,
+                lastBatchNanos / 1_000_000.0);
+    }
+
+    private void writeLoop() {
+        List<String> batch = new ArrayList<>(maxBatch);
+        boolean stopping = false;
+        while (!stopping || !batch.isEmpty()) {
+            if (batch.isEmpty()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    return; // Not used to stop the writer: an interrupt would also close the channel
+                }
+                queue.drainTo(batch, maxBatch - 1);
+                stopping = batch.removeIf(record -> record == STOP);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+            }
+            try {
+                writeBatch(batch);
+                batch.clear(); // A failed batch is kept and retried first
+            } catch (IOException e) {
+                failedBatches++;
+                logger.error("Error writing {} records to leaderboard journal {}", batch.size(), journalPath, e);
+                if (stopping) {
+                    return;
+                }
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void writeBatch(List<String> batch) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (String record : batch) {
+            content.append(record);
+        }
+        long start = System.nanoTime();
+        commitLock.lock();
+        try {
+            if (!channel.isOpen()) {
+                channel = openJournalChannel(); // A compaction or an earlier failure left it closed
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            journalHasRecords = true;
+        } finally {
+            commitLock.unlock();
+        }
+        lastBatchNanos = System.nanoTime() - start;
+        batchTimer.record(lastBatchNanos, TimeUnit.NANOSECONDS);
+        recordsWritten += batch.size();
+        batchesWritten++;
+        maxBatchSize = Math.max(maxBatchSize, batch.size());
+    }
+
+    /**
+     * Rewrites the snapshot from the in-memory scores and discards the journal records it covers.
+     * Every journalled record has been merged into {@code scores} before it was queued, so a snapshot
+     * written after the rotation always contains the rotated journal. Records still queued land in
+     * the new journal, where replaying them again is harmless. After a record was dropped, the snapshot
+     * is written even when the journal is empty.
+     */
+    void compact(Map<String, Integer> scores) throws IOException {
+        commitLock.lock();
+        try {
+            // getAndSet reads the flag, so every score merged before a drop is visible to the snapshot below
+            if (!recordsDropped.getAndSet(false) && !journalHasRecords && !Files.exists(rotatedJournalPath)) {
+                return;
+            }
+            // A leftover rotated journal means the previous compaction did not finish; keep it and
+            // let this snapshot cover it instead of overwriting it with the current journal.
+            if (!Files.exists(rotatedJournalPath)) {
+                channel.close();
+                try {
+                    Files.move(journalPath, rotatedJournalPath, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    channel = openJournalChannel(); // If this fails too, the writer retries the open
+                }
+            }
+            journalHasRecords = false;
+        } finally {
+            commitLock.unlock();
+        }
+
+        Path tempSnapshot = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileChannel snapshotChannel = FileChannel.open(tempSnapshot,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            BufferedWriter writer = new BufferedWriter(
+                    new OutputStreamWriter(Channels.newOutputStream(snapshotChannel), StandardCharsets.UTF_8));
+            for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+                writer.write(entry.getKey() + ":" + entry.getValue());
+                writer.newLine();
+            }
+            writer.flush();
+            snapshotChannel.force(true);
+        }
+        try {
+            Files.move(tempSnapshot, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // e.g. the snapshot is a single-file Docker bind mount, which cannot be renamed over.
+            // Copying in place is not atomic, but the rotated journal is only deleted afterwards.
+            Files.copy(tempSnapshot, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(tempSnapshot);
+        }
+        Files.deleteIfExists(rotatedJournalPath);
+    }
+
+    /**
+     * Writes every record queued so far, then stops the writer and closes the journal.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (writer != null) {
+            try {
+                if (!queue.offer(STOP, MAX_PRODUCER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    writer.interrupt(); // Stuck retrying a batch with the queue full; what is queued is lost
+                }
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        commitLock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private FileChannel openJournalChannel() throws IOException {
+        return FileChannel.open(journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,122 @@
+package utcn.isp.quizapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import utcn.isp.quizapp.model.LeaderboardPage;
+import utcn.isp.quizapp.model.RankedUser;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the top of the leaderboard to public viewers as Server-Sent Events.
+ * <p>
+ * Score changes are not pushed one by one: every {@code quiz.leaderboard.stream.interval-millis} the
+ * top {@code quiz.leaderboard.stream.rows} positions are compared with what was sent last, and a single
+ * "diff" event carrying only the positions whose rank, name or score changed goes to every viewer. A burst
+ * of games finishing together therefore costs one diff per interval, serialized once. Nothing is computed
+ * while the leaderboard version is unchanged or nobody is watching. A viewer that connects with the
+ * version its page was rendered at gets no snapshot when that version is still current.
+ */
+@Service
+public class LeaderboardStreamService {
+
+    private final Leaderboard leaderboard;
+    private final int windowRows;
+    private final SseBroadcaster broadcaster;
+
+    // Only used on the broadcaster thread
+    private long sentVersion = -1;
+    private List<RankedUser> sentRows = List.of();
+    private int sentTotal;
+    private String snapshotJson;
+
+    public LeaderboardStreamService(Leaderboard leaderboard, ObjectMapper objectMapper,
+                                    @Value("${quiz.leaderboard.stream.interval-millis:1000}") long intervalMillis,
+                                    @Value("${quiz.leaderboard.stream.rows:100}") int windowRows) {
+        this.leaderboard = leaderboard;
+        this.windowRows = Math.max(1, windowRows);
+        this.broadcaster = new SseBroadcaster("leaderboard-stream", objectMapper);
+        broadcaster.scheduleWithFixedDelay(this::tick, Math.max(50L, intervalMillis));
+    }
+
+    /**
+     * @param clientVersion leaderboard version the viewer's page was rendered at, or -1 if unknown
+     */
+    public SseEmitter subscribe(long clientVersion) {
+        return broadcaster.subscribe(() -> {
+            refresh();
+            return (clientVersion == sentVersion) ? null : snapshotJson;
+        });
+    }
+
+    public int getViewerCount() {
+        return broadcaster.getSubscriberCount();
+    }
+
+    private void tick() {
+        if (broadcaster.hasSubscribers()) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        long version = leaderboard.getVersion(); // Read first: a concurrent change shows up on the next tick
+        if (version == sentVersion) {
+            return;
+        }
+        LeaderboardPage window = leaderboard.getPage(1, windowRows);
+        List<RankedUser> rows = window.getEntries();
+        int total = window.getTotalEntries();
+        List<Map<String, Object>> changed = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (i >= sentRows.size() || !sameRow(rows.get(i), sentRows.get(i))) {
+                changed.add(describe(i, rows.get(i)));
+            }
+        }
+        if (!changed.isEmpty() || rows.size() != sentRows.size() || total != sentTotal) {
+            broadcaster.broadcast("diff", broadcaster.toJson(event(version, total, rows.size(), changed)));
+        }
+        List<Map<String, Object>> all = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            all.add(describe(i, rows.get(i)));
+        }
+        snapshotJson = broadcaster.toJson(event(version, total, rows.size(), all));
+        sentVersion = version;
+        sentRows = rows;
+        sentTotal = total;
+    }
+
+    private static boolean sameRow(RankedUser a, RankedUser b) {
+        return a.getRank() == b.getRank() && a.getScore() == b.getScore() && a.getName().equals(b.getName());
+    }
+
+    // size is the number of positions streamed; positions past it are not covered
+    private static Map<String, Object> event(long version, int total, int size, List<Map<String, Object>> rows) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("version", version);
+        event.put("total", total);
+        event.put("size", size);
+        event.put("rows", rows);
+        return event;
+    }
+
+    private static Map<String, Object> describe(int position, RankedUser user) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("position", position);
+        row.put("rank", user.getRank());
+        row.put("name", user.getName());
+        row.put("score", user.getScore());
+        return row;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        broadcaster.shutdown();
+    }
+}
@@ -0,0 +1,152 @@
+package utcn.isp.quizapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import utcn.isp.quizapp.model.Difficulty;
+import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.QuestionPerformance;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how every question performs: attempts, correct answers and time to answer.
+ * <p>
+ * Questions have no id of their own and their position in the bank changes on reload, so they are keyed
+ * by text. Recording an answer is a map lookup plus a few {@link LongAdder} increments and one
+ * {@link LatencySketch} increment, without locks, so {@code submitAnswer} stays cheap when many players
+ * answer the same question at once. Nothing is aggregated until the dashboard asks for it; the answer times
+ * of all questions are then merged from the per-question sketches rather than recorded a second time.
+ */
+@Service
+public class QuestionAnalyticsService {
+
+    private final ConcurrentHashMap<String, QuestionCounters> counters = new ConcurrentHashMap<>();
+    private final LongAdder untrackedAnswers = new LongAdder();
+    private final int maxQuestions;
+    private final int minAttempts;
+    private final int listSize;
+
+    public QuestionAnalyticsService(@Value("${quiz.analytics.max-questions:10000}") int maxQuestions,
+                                    @Value("${quiz.analytics.min-attempts:5}") int minAttempts,
+                                    @Value("${quiz.analytics.list-size:10}") int listSize) {
+        this.maxQuestions = Math.max(1, maxQuestions);
+        this.minAttempts = Math.max(1, minAttempts);
+        this.listSize = Math.max(1, listSize);
+    }
+
+    /**
+     * @param answerMillis time from the question being dealt to the answer
+     */
+    public void recordAnswer(Question question, boolean correct, long answerMillis) {
+        String key = question.getQuestionText();
+        QuestionCounters questionCounters = counters.get(key);
+        if (questionCounters == null) {
+            // Bounded: reloads that keep changing question texts would otherwise grow the map forever
+            if (counters.size() >= maxQuestions) {
+                untrackedAnswers.increment();
+                return;
+            }
+            questionCounters = counters.computeIfAbsent(key, text -> new QuestionCounters(question));
+        }
+        questionCounters.record(correct, answerMillis);
+    }
+
+    /**
+     * @return every tracked question, in no particular order
+     */
+    public List<QuestionPerformance> getQuestionPerformance() {
+        List<QuestionPerformance> performance = new ArrayList<>(counters.size());
+        counters.forEach((text, questionCounters) -> performance.add(questionCounters.snapshot(text)));
+        return performance;
+    }
+
+    /**
+     * Lowest correct rate first, among questions with at least {@code quiz.analytics.min-attempts} answers.
+     */
+    public List<QuestionPerformance> getHardestQuestions(List<QuestionPerformance> performance) {
+        return top(performance, Comparator.comparingDouble(QuestionPerformance::getCorrectPercentage)
+                .thenComparing(Comparator.comparingLong(QuestionPerformance::getAttempts).reversed()));
+    }
+
+    public List<QuestionPerformance> getEasiestQuestions(List<QuestionPerformance> performance) {
+        return top(performance, Comparator.comparingDouble(QuestionPerformance::getCorrectPercentage).reversed()
+                .thenComparing(Comparator.comparingLong(QuestionPerformance::getAttempts).reversed()));
+    }
+
+    public List<QuestionPerformance> getSlowestQuestions(List<QuestionPerformance> performance) {
+        return top(performance, Comparator.comparingLong(QuestionPerformance::getMedianAnswerMillis)
+                .thenComparingLong(QuestionPerformance::getAverageAnswerMillis).reversed());
+    }
+
+    private List<QuestionPerformance> top(List<QuestionPerformance> performance,
+                                          Comparator<QuestionPerformance> order) {
+        return performance.stream()
+                .filter(question -> question.getAttempts() >= minAttempts)
+                .sorted(order)
+                .limit(listSize)
+                .toList();
+    }
+
+    /**
+     * @return p50, p90 and p99 answer times in milliseconds over every tracked question, all zero without answers
+     */
+    public long[] getOverallAnswerTimePercentiles() {
+        LatencySketch overall = new LatencySketch();
+        counters.values().forEach(questionCounters -> overall.add(questionCounters.answerTimes));
+        return new long[]{overall.valueAtQuantile(0.5), overall.valueAtQuantile(0.9), overall.valueAtQuantile(0.99)};
+    }
+
+    public int getTrackedQuestionCount() {
+        return counters.size();
+    }
+
+    /**
+     * @return answers not counted because {@code quiz.analytics.max-questions} questions were already tracked
+     */
+    public long getUntrackedAnswerCount() {
+        return untrackedAnswers.sum();
+    }
+
+    public int getMinAttempts() {
+        return minAttempts;
+    }
+
+    private static final class QuestionCounters {
+        private final String category;
+        private final Difficulty difficulty;
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder correctAnswers = new LongAdder();
+        private final LongAdder totalAnswerMillis = new LongAdder();
+        private final LongAccumulator maxAnswerMillis = new LongAccumulator(Math::max, 0L);
+        private final LatencySketch answerTimes = new LatencySketch();
+
+        private QuestionCounters(Question question) {
+            this.category = question.getCategory();
+            this.difficulty = question.getDifficulty();
+        }
+
+        void record(boolean correct, long answerMillis) {
+            attempts.increment();
+            if (correct) {
+                correctAnswers.increment();
+            }
+            totalAnswerMillis.add(answerMillis);
+            maxAnswerMillis.accumulate(answerMillis);
+            answerTimes.record(answerMillis);
+        }
+
+        // The counters are read one by one while answers keep coming, so a snapshot may be off by a few answers
+        QuestionPerformance snapshot(String questionText) {
+            long attemptCount = attempts.sum();
+            long average = (attemptCount == 0) ? 0 : totalAnswerMillis.sum() / attemptCount;
+            return new QuestionPerformance(questionText, category, difficulty, attemptCount, correctAnswers.sum(),
+                    average, answerTimes.valueAtQuantile(0.5), answerTimes.valueAtQuantile(0.9),
+                    answerTimes.valueAtQuantile(0.99), maxAnswerMillis.get());
+        }
+    }
+}
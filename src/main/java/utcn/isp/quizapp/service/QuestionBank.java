@@ -0,0 +1,284 @@
+package utcn.isp.quizapp.service;
+
+import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.QuestionLoadReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application-wide, read-only question bank. Questions are parsed once and the same immutable
+ * {@link Question} instances are shared by every session.
+ * <p>
+ * When {@code quiz.questions.external-path} is set, the bank is loaded from that file and the file is
+ * watched: a new version is parsed and validated on a background thread, then swapped in atomically.
+ * Games already in progress keep the questions they were started with. The external file may also be a
+ * {@link CompiledQuestionBank}, which is memory-mapped and decoded lazily instead of parsed up front.
+ * Every load also builds a {@link QuestionIndex} so games can draw by category and difficulty.
+ */
+@Service
+public class QuestionBank {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionBank.class);
+    private static final long RELOAD_SETTLE_MILLIS = 500; // Editors often write a file in several steps
+
+    private final String questionsResourceName;
+    private final Path externalPath; // null when questions only come from the classpath
+    private final Counter loadFailures;
+    private volatile QuestionIndex index = QuestionIndex.EMPTY; // Questions and their index, swapped together
+    private volatile String source = "none";
+    private volatile QuestionLoadReport lastLoadReport; // Of the latest attempt, including rejected reloads
+    private volatile boolean lastLoadApplied;
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    public QuestionBank(@Value("${quiz.questions.file-name:questions.txt}") String questionsResourceName,
+                        @Value("${quiz.questions.external-path:}") String externalPath,
+                        MeterRegistry registry) {
+        this.questionsResourceName = questionsResourceName;
+        this.externalPath = (externalPath == null || externalPath.isBlank())
+                ? null : Paths.get(externalPath).toAbsolutePath().normalize();
+        this.loadFailures = Counter.builder("quiz.questions.load.failures")
+                .description("Question loads that were rejected, leaving the previous questions in use")
+                .register(registry);
+        Gauge.builder("quiz.questions.bank.size", this, QuestionBank::size)
+                .description("Questions in the live bank")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void loadQuestions() {
+        if (externalPath != null && Files.isRegularFile(externalPath) && reloadFromExternalFile()) {
+            startWatching();
+            return;
+        }
+        if (externalPath != null) {
+            logger.warn("External question file '{}' not usable, falling back to classpath resource '{}'.", externalPath, questionsResourceName);
+        }
+        logger.info("Attempting to load questions from resource: {}", questionsResourceName);
+        QuestionLoader.LoadResult result = QuestionLoader.loadFromClasspath(questionsResourceName);
+        if (result.questions().isEmpty()) {
+            recordReport(result.report(), false);
+            logger.error("FATAL: No questions loaded or questions file is empty/malformed. Check '{}' in classpath.", questionsResourceName);
+        } else {
+            swap(List.copyOf(result.questions()), "classpath:" + questionsResourceName);
+            recordReport(result.report(), true);
+        }
+        if (externalPath != null) {
+            startWatching(); // Pick the external file up as soon as it appears
+        }
+    }
+
+    /**
+     * @return the current shared, unmodifiable list of questions; callers should keep the returned
+     *         list rather than calling again, since a reload may swap it at any time
+     */
+    public List<Question> getQuestions() {
+        return index.getQuestions();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    /**
+     * @return the categories present in the current bank, sorted by name
+     */
+    public List<String> getCategories() {
+        return index.getCategories();
+    }
+
+    /**
+     * @return the current questions together with their category/difficulty/tag index
+     */
+    QuestionIndex getIndex() {
+        return index;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the report of the most recent load attempt, or null before the first load
+     */
+    public QuestionLoadReport getLastLoadReport() {
+        return lastLoadReport;
+    }
+
+    /**
+     * @return false if the most recent load attempt was rejected and older questions are still live
+     */
+    public boolean isLastLoadApplied() {
+        return lastLoadApplied;
+    }
+
+    /**
+     * Parses the external file and swaps it in if it contains at least one valid question. A file that
+     * cannot be read or turns out to be corrupt (e.g. a truncated compiled bank) is rejected and the
+     * current questions stay live.
+     *
+     * @return true if the new questions are now live
+     */
+    public boolean reloadFromExternalFile() {
+        if (externalPath == null) {
+            return false;
+        }
+        List<Question> loaded;
+        QuestionLoadReport report;
+        boolean compiled = CompiledQuestionBank.isCompiledBank(externalPath);
+        try {
+            if (compiled) {
+                long start = System.nanoTime();
+                loaded = CompiledQuestionBank.open(externalPath); // Already immutable, must not be copied (would decode everything)
+                report = new QuestionLoadReport("compiled:" + externalPath, loaded.size(), loaded.size(),
+                        Collections.emptyList(), Collections.emptyList(), 0, (System.nanoTime() - start) / 1_000_000);
+            } else {
+                QuestionLoader.LoadResult result = QuestionLoader.loadFromFile(externalPath);
+                loaded = List.copyOf(result.questions());
+                report = result.report();
+            }
+        } catch (IOException e) {
+            logger.error("Could not read question file '{}', keeping the current {} questions: {}", externalPath, size(), e.getMessage());
+            recordRejectedFile("Read error: " + e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            logger.error("Question file '{}' is corrupt, keeping the current {} questions.", externalPath, size(), e);
+            recordRejectedFile("Corrupt file: " + e);
+            return false;
+        }
+        if (loaded.isEmpty()) {
+            recordReport(report, false);
+            logger.error("Question file '{}' contains no valid questions, keeping the current {} questions.", externalPath, size());
+            return false;
+        }
+        try {
+            swap(loaded, compiled ? "compiled:" + externalPath : externalPath.toString());
+        } catch (RuntimeException e) { // Never leave the watcher with a half-applied bank
+            logger.error("Question file '{}' is corrupt, keeping the current {} questions.", externalPath, size(), e);
+            recordRejectedFile("Corrupt file: " + e);
+            return false;
+        }
+        recordReport(report, true); // Only once the questions are actually live
+        return true;
+    }
+
+    private void recordRejectedFile(String problem) {
+        recordReport(new QuestionLoadReport(externalPath.toString(), 0, 0,
+                List.of(new QuestionLoadReport.Issue(0, problem)), Collections.emptyList(), 0, 0), false);
+    }
+
+    private void recordReport(QuestionLoadReport report, boolean applied) {
+        this.lastLoadReport = report;
+        this.lastLoadApplied = applied;
+        if (!applied) {
+            loadFailures.increment();
+        }
+        if (report.hasProblems()) {
+            logger.warn("Question load from {}: {} blocks rejected, {} duplicate questions. First issues: {}",
+                    report.getSource(), report.getRejectedCount(), report.getDuplicateCount(),
+                    report.getRejectedBlocks().stream().limit(5).toList());
+        }
+    }
+
+    // loaded must already be immutable
+    private void swap(List<Question> loaded, String loadedFrom) {
+        this.index = QuestionIndex.of(loaded);
+        this.source = loadedFrom;
+        logger.info("Successfully loaded {} questions from {}.", loaded.size(), loadedFrom);
+    }
+
+    private void startWatching() {
+        Path directory = externalPath.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            logger.warn("Cannot watch question file '{}': parent directory does not exist.", externalPath);
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.error("Cannot watch question file '{}', hot reload disabled: {}", externalPath, e.getMessage());
+            return;
+        }
+        watcherThread = new Thread(this::watchLoop, "question-bank-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        logger.info("Watching '{}' for question bank changes.", externalPath);
+    }
+
+    private void watchLoop() {
+        Path fileName = externalPath.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = containsFile(key, fileName);
+                // Let the writer finish, then fold any follow-up events into the same reload
+                WatchKey next;
+                while ((next = watchService.poll(RELOAD_SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= containsFile(next, fileName);
+                }
+                if (changed && Files.isRegularFile(externalPath)) {
+                    try {
+                        reloadFromExternalFile();
+                    } catch (RuntimeException e) { // Must not end the watcher, or hot reload stays off until restart
+                        logger.error("Reloading question file '{}' failed, keeping the current {} questions.", externalPath, size(), e);
+                        recordRejectedFile("Reload failed: " + e);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private static boolean containsFile(WatchKey key, Path fileName) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) {
+                found = true;
+            }
+        }
+        key.reset();
+        return found;
+    }
+
+    @PreDestroy
+    void stopWatching() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Error closing question file watcher: {}", e.getMessage());
+        }
+        watcherThread.interrupt();
+    }
+}
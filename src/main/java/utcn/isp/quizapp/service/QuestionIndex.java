@@ -0,0 +1,254 @@
+package utcn.isp.quizapp.service;
+
+import utcn.isp.quizapp.model.Difficulty;
+import utcn.isp.quizapp.model.Question;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable question list plus id arrays per category, per difficulty and per tag, built once when a
+ * bank is loaded. Games pick from these arrays instead of filtering the bank on every request.
+ * Keeping the list and its index in one object lets {@link QuestionBank} swap both atomically.
+ * The returned arrays are shared and must not be modified.
+ * <p>
+ * A {@link CompiledQuestionBank} stores the arrays in its index section, so loading it reads them back
+ * instead of visiting every record.
+ */
+final class QuestionIndex {
+
+    static final QuestionIndex EMPTY = new QuestionIndex(List.of());
+    private static final int[] NO_IDS = new int[0];
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+
+    /**
+     * Lets a bank hand over the index it was stored with.
+     */
+    interface Prebuilt {
+        QuestionIndex getIndex();
+    }
+
+    private final List<Question> questions;
+    private final Map<String, String> categoryNames = new TreeMap<>();          // key -> display name
+    private final Map<String, EnumMap<Difficulty, int[]>> byCategory = new HashMap<>();
+    private final Map<String, int[]> byCategoryAnyDifficulty = new HashMap<>();
+    private final EnumMap<Difficulty, int[]> byDifficulty = new EnumMap<>(Difficulty.class);
+    private final Map<String, EnumMap<Difficulty, int[]>> byTag = new HashMap<>();
+    private final Map<String, int[]> byTagAnyDifficulty = new HashMap<>();
+
+    /**
+     * @return the index stored with {@code questions}, or a new one built from them
+     */
+    static QuestionIndex of(List<Question> questions) {
+        return (questions instanceof Prebuilt prebuilt) ? prebuilt.getIndex() : new QuestionIndex(questions);
+    }
+
+    QuestionIndex(List<Question> questions) {
+        this.questions = questions;
+        Map<String, EnumMap<Difficulty, List<Integer>>> categoryIds = new LinkedHashMap<>();
+        Map<String, EnumMap<Difficulty, List<Integer>>> tagIds = new HashMap<>();
+        EnumMap<Difficulty, List<Integer>> difficultyIds = new EnumMap<>(Difficulty.class);
+        for (int id = 0; id < questions.size(); id++) {
+            Question question = questions.get(id);
+            Difficulty difficulty = question.getDifficulty();
+            String categoryKey = key(question.getCategory());
+            categoryNames.putIfAbsent(categoryKey, question.getCategory());
+            add(categoryIds, categoryKey, difficulty, id);
+            difficultyIds.computeIfAbsent(difficulty, d -> new ArrayList<>()).add(id);
+            for (String tag : question.getTags()) {
+                add(tagIds, key(tag), difficulty, id);
+            }
+        }
+        freeze(categoryIds, byCategory, byCategoryAnyDifficulty);
+        freeze(tagIds, byTag, byTagAnyDifficulty);
+        difficultyIds.forEach((difficulty, ids) -> byDifficulty.put(difficulty, toArray(ids)));
+    }
+
+    /**
+     * Reads an index written by {@link #writeTo(DataOutputStream)}, checking every id against the bank size.
+     *
+     * @param section positioned at the start of the index section and limited to its end
+     */
+    QuestionIndex(List<Question> questions, ByteBuffer section) throws IOException {
+        this.questions = questions;
+        try {
+            readIds(section, byDifficulty);
+            for (int i = readCount(section); i > 0; i--) {
+                String category = readString(section);
+                String categoryKey = key(category);
+                categoryNames.putIfAbsent(categoryKey, category);
+                byCategoryAnyDifficulty.put(categoryKey, readIds(section));
+                byCategory.put(categoryKey, readIds(section, new EnumMap<>(Difficulty.class)));
+            }
+            for (int i = readCount(section); i > 0; i--) {
+                String tagKey = readString(section);
+                byTagAnyDifficulty.put(tagKey, readIds(section));
+                byTag.put(tagKey, readIds(section, new EnumMap<>(Difficulty.class)));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt compiled question bank index section", e);
+        }
+        if (section.hasRemaining()) {
+            throw new IOException("Corrupt compiled question bank index section: " + section.remaining() + " trailing bytes");
+        }
+    }
+
+    /**
+     * Writes the id arrays in the index section layout described by {@link CompiledQuestionBank}.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        writeIds(out, byDifficulty);
+        out.writeInt(categoryNames.size());
+        for (Map.Entry<String, String> category : categoryNames.entrySet()) {
+            writeString(out, category.getValue());
+            writeIds(out, byCategoryAnyDifficulty.get(category.getKey()));
+            writeIds(out, byCategory.get(category.getKey()));
+        }
+        out.writeInt(byTag.size());
+        for (Map.Entry<String, EnumMap<Difficulty, int[]>> tag : byTag.entrySet()) {
+            writeString(out, tag.getKey());
+            writeIds(out, byTagAnyDifficulty.get(tag.getKey()));
+            writeIds(out, tag.getValue());
+        }
+    }
+
+    List<Question> getQuestions() {
+        return questions;
+    }
+
+    int size() {
+        return questions.size();
+    }
+
+    /**
+     * @return category display names, sorted case-insensitively
+     */
+    List<String> getCategories() {
+        return List.copyOf(categoryNames.values());
+    }
+
+    /**
+     * Ids of the questions in {@code topic} (a category, or else a tag) with the given difficulty.
+     *
+     * @param topic      null for the whole bank
+     * @param difficulty null for any difficulty
+     * @return the matching ids, or null when neither filter applies (meaning every id)
+     */
+    int[] ids(String topic, Difficulty difficulty) {
+        if (topic == null || topic.isBlank()) {
+            return (difficulty == null) ? null : byDifficulty.getOrDefault(difficulty, NO_IDS);
+        }
+        String topicKey = key(topic);
+        boolean isCategory = byCategory.containsKey(topicKey);
+        if (difficulty == null) {
+            return (isCategory ? byCategoryAnyDifficulty : byTagAnyDifficulty).getOrDefault(topicKey, NO_IDS);
+        }
+        EnumMap<Difficulty, int[]> perDifficulty = (isCategory ? byCategory : byTag).get(topicKey);
+        return (perDifficulty == null) ? NO_IDS : perDifficulty.getOrDefault(difficulty, NO_IDS);
+    }
+
+    private static void add(Map<String, EnumMap<Difficulty, List<Integer>>> target, String key, Difficulty difficulty, int id) {
+        target.computeIfAbsent(key, k -> new EnumMap<>(Difficulty.class))
+                .computeIfAbsent(difficulty, d -> new ArrayList<>())
+                .add(id);
+    }
+
+    private static void freeze(Map<String, EnumMap<Difficulty, List<Integer>>> source,
+                               Map<String, EnumMap<Difficulty, int[]>> perDifficulty,
+                               Map<String, int[]> anyDifficulty) {
+        source.forEach((key, lists) -> {
+            EnumMap<Difficulty, int[]> arrays = new EnumMap<>(Difficulty.class);
+            List<Integer> all = new ArrayList<>();
+            lists.forEach((difficulty, ids) -> {
+                arrays.put(difficulty, toArray(ids));
+                all.addAll(ids);
+            });
+            all.sort(null);
+            perDifficulty.put(key, arrays);
+            anyDifficulty.put(key, toArray(all));
+        });
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        int[] array = new int[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+
+    private static void writeIds(DataOutputStream out, EnumMap<Difficulty, int[]> perDifficulty) throws IOException {
+        for (Difficulty difficulty : DIFFICULTIES) {
+            writeIds(out, perDifficulty.getOrDefault(difficulty, NO_IDS));
+        }
+    }
+
+    private static void writeIds(DataOutputStream out, int[] ids) throws IOException {
+        out.writeInt(ids.length);
+        for (int id : ids) {
+            out.writeInt(id);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private EnumMap<Difficulty, int[]> readIds(ByteBuffer section, EnumMap<Difficulty, int[]> target) throws IOException {
+        for (Difficulty difficulty : DIFFICULTIES) {
+            int[] ids = readIds(section);
+            if (ids.length > 0) {
+                target.put(difficulty, ids);
+            }
+        }
+        return target;
+    }
+
+    // One bulk copy per array, no per-id boxing
+    private int[] readIds(ByteBuffer section) throws IOException {
+        int length = readCount(section);
+        if (length == 0) {
+            return NO_IDS;
+        }
+        int[] ids = new int[length];
+        section.slice(section.position(), Math.multiplyExact(length, 4)).asIntBuffer().get(ids);
+        section.position(section.position() + 4 * length);
+        for (int id : ids) {
+            if (id < 0 || id >= questions.size()) {
+                throw new IOException("Corrupt compiled question bank index: question " + id + " of " + questions.size());
+            }
+        }
+        return ids;
+    }
+
+    private static String readString(ByteBuffer section) throws IOException {
+        byte[] bytes = new byte[readCount(section)];
+        section.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(ByteBuffer section) throws IOException {
+        int count = section.getInt();
+        if (count < 0 || count > section.remaining()) {
+            throw new IOException("Corrupt compiled question bank index: bad length " + count);
+        }
+        return count;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,67 +1,288 @@
 package utcn.isp.quizapp.service;
 
+import utcn.isp.quizapp.model.Difficulty;
 import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.QuestionLoadReport;
+import utcn.isp.quizapp.model.QuestionLoadReport.Issue;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
+/**
+ * Parses the text question format: blocks of 6 lines (question, 4 options, correct letter A-D)
+ * separated by blank lines. A block may start with an optional metadata line such as
+ * {@code @category=Scheduling; difficulty=hard; tags=rtos, threads}. Malformed blocks are skipped and
+ * reported with their line number in a {@link QuestionLoadReport}, together with questions whose text
+ * appears more than once.
+ */
 public class QuestionLoader {
     private static final int LINES_PER_QUESTION_BLOCK = 6; // Question, 4 options, 1 correct answer
+    private static final String METADATA_PREFIX = "@";
+    // "@key=value; key=value", so that a question such as "@Override is used to...?" is not taken for metadata
+    private static final Pattern METADATA_LINE = Pattern.compile("@\\s*[A-Za-z][\\w-]*\\s*=[^;]*(;\\s*[A-Za-z][\\w-]*\\s*=[^;]*)*;?\\s*");
+    private static final int PARALLEL_THRESHOLD_CHARS = 1 << 20; // Smaller files are parsed as one chunk
+    private static final int CHUNK_TARGET_CHARS = 1 << 18;
+
+    public record LoadResult(List<Question> questions, QuestionLoadReport report) {
+    }
 
     public static List<Question> loadQuestionsFromClasspath(String resourceName) {
+        return loadFromClasspath(resourceName).questions();
+    }
+
+    /**
+     * Loads questions from a file on the filesystem. Unlike the classpath variant, I/O errors are
+     * propagated so callers can keep their current questions when a reload fails.
+     */
+    public static List<Question> loadQuestionsFromFile(Path file) throws IOException {
+        return loadFromFile(file).questions();
+    }
+
+    public static LoadResult loadFromClasspath(String resourceName) {
         List<Question> questions = new ArrayList<>();
         // Try loading as a resource from the classpath
         InputStream inputStream = QuestionLoader.class.getClassLoader().getResourceAsStream(resourceName);
 
         if (inputStream == null) {
             System.err.println("Error: Cannot find question file in classpath: " + resourceName);
-            return questions; // Return empty list
+            return emptyResult("classpath:" + resourceName, "Resource not found in classpath");
         }
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            QuestionLoadReport report = streamQuestions(reader, "classpath:" + resourceName, questions::add);
+            return new LoadResult(questions, report);
+        } catch (IOException e) {
+            System.err.println("Error loading questions from resource: " + resourceName + " - " + e.getMessage());
+            return emptyResult("classpath:" + resourceName, "Read error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses {@code reader} block by block, handing each valid question to {@code consumer} as soon as
+     * its block is complete.
+     */
+    public static QuestionLoadReport streamQuestions(BufferedReader reader, String source, Consumer<Question> consumer) throws IOException {
+        long start = System.nanoTime();
+        DuplicateDetector duplicates = new DuplicateDetector();
+        BlockParser parser = new BlockParser((question, lineNumber) -> {
+            duplicates.check(question, lineNumber);
+            consumer.accept(question);
+        });
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            parser.line(line, ++lineNumber);
+        }
+        parser.finish();
+        return new QuestionLoadReport(source, parser.blocksRead, parser.questionCount, parser.rejected,
+                duplicates.duplicates, 1, elapsedMillis(start));
+    }
+
+    /**
+     * Loads a question file. Files above {@value #PARALLEL_THRESHOLD_CHARS} bytes are read line by line
+     * into chunks that end at a blank line, so no question block spans two chunks; each chunk is handed
+     * to the common fork-join pool as soon as it is complete, and is parsed while the rest of the file
+     * is still being read. The file is never held in memory as a whole.
+     */
+    public static LoadResult loadFromFile(Path file) throws IOException {
+        long start = System.nanoTime();
+        int chunkTarget = (Files.size(file) < PARALLEL_THRESHOLD_CHARS) ? Integer.MAX_VALUE : CHUNK_TARGET_CHARS;
+        List<ForkJoinTask<ChunkResult>> parsing = new ArrayList<>();
+        ChunkResult lastChunk;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> lines = new ArrayList<>();
+            int chunkChars = 0;
             String line;
-            List<String> currentQuestionBlock = new ArrayList<>();
             while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) { // Separator between questions or end of block
-                    if (currentQuestionBlock.size() == LINES_PER_QUESTION_BLOCK) {
-                        addQuestionFromBlock(questions, currentQuestionBlock);
+                lines.add(line);
+                chunkChars += line.length() + 1;
+                if (chunkChars >= chunkTarget && line.isBlank()) {
+                    List<String> chunk = lines;
+                    parsing.add(ForkJoinPool.commonPool().submit(() -> parseChunk(chunk)));
+                    lines = new ArrayList<>();
+                    chunkChars = 0;
+                }
+            }
+            lastChunk = parseChunk(lines); // On this thread, while the pool finishes the earlier chunks
+        }
+        List<ChunkResult> chunkResults = new ArrayList<>(parsing.size() + 1);
+        parsing.forEach(task -> chunkResults.add(task.join()));
+        chunkResults.add(lastChunk);
+
+        // Merge in file order, shifting chunk-relative line numbers
+        List<Question> questions = new ArrayList<>();
+        List<Issue> rejected = new ArrayList<>();
+        DuplicateDetector duplicates = new DuplicateDetector();
+        int blocksRead = 0;
+        int lineOffset = 0;
+        for (ChunkResult chunk : chunkResults) {
+            for (int i = 0; i < chunk.questions.size(); i++) {
+                Question question = chunk.questions.get(i);
+                duplicates.check(question, lineOffset + chunk.questionLines.get(i));
+                questions.add(question);
+            }
+            for (Issue issue : chunk.parser.rejected) {
+                rejected.add(new Issue(lineOffset + issue.getLineNumber(), issue.getMessage()));
+            }
+            blocksRead += chunk.parser.blocksRead;
+            lineOffset += chunk.lineCount;
+        }
+        QuestionLoadReport report = new QuestionLoadReport(file.toString(), blocksRead, questions.size(), rejected,
+                duplicates.duplicates, chunkResults.size(), elapsedMillis(start));
+        return new LoadResult(questions, report);
+    }
+
+    private static LoadResult emptyResult(String source, String problem) {
+        QuestionLoadReport report = new QuestionLoadReport(source, 0, 0, List.of(new Issue(0, problem)),
+                Collections.emptyList(), 0, 0);
+        return new LoadResult(new ArrayList<>(), report);
+    }
+
+    private static ChunkResult parseChunk(List<String> lines) {
+        ChunkResult result = new ChunkResult();
+        for (int i = 0; i < lines.size(); i++) {
+            result.parser.line(lines.get(i), i + 1);
+        }
+        result.parser.finish();
+        result.lineCount = lines.size();
+        lines.clear(); // The submitted task still references its lines; let the text go once parsed
+        return result;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private interface QuestionSink {
+        void accept(Question question, int lineNumber);
+    }
+
+    private static final class ChunkResult {
+        private final List<Question> questions = new ArrayList<>();
+        private final List<Integer> questionLines = new ArrayList<>();
+        private final BlockParser parser = new BlockParser((question, lineNumber) -> {
+            questions.add(question);
+            questionLines.add(lineNumber);
+        });
+        private int lineCount;
+    }
+
+    private static final class BlockParser {
+        private final QuestionSink sink;
+        private final List<String> block = new ArrayList<>(LINES_PER_QUESTION_BLOCK);
+        private final List<Issue> rejected = new ArrayList<>();
+        private int blockStartLine;
+        private int blocksRead;
+        private int questionCount;
+
+        private BlockParser(QuestionSink sink) {
+            this.sink = sink;
+        }
+
+        private void line(String rawLine, int lineNumber) {
+            String line = rawLine.trim();
+            if (line.isEmpty()) { // Separator between questions or end of block
+                finish();
+            } else {
+                if (block.isEmpty()) {
+                    blockStartLine = lineNumber;
+                }
+                block.add(line);
+            }
+        }
+
+        // Also called at end of input, for a last block not followed by a blank line
+        private void finish() {
+            if (block.isEmpty()) {
+                return;
+            }
+            blocksRead++;
+            boolean hasMetadata = METADATA_LINE.matcher(block.get(0)).matches();
+            int questionLines = hasMetadata ? block.size() - 1 : block.size();
+            if (questionLines != LINES_PER_QUESTION_BLOCK) {
+                rejected.add(new Issue(blockStartLine, "Expected " + LINES_PER_QUESTION_BLOCK
+                        + " lines (question, 4 options, answer letter) but found " + questionLines));
+            } else {
+                addQuestionFromBlock(hasMetadata ? block.get(0) : null, hasMetadata ? 1 : 0);
+            }
+            block.clear();
+        }
+
+        private void addQuestionFromBlock(String metadataLine, int first) {
+            String category = null;
+            Difficulty difficulty = null;
+            List<String> tags = Collections.emptyList();
+            if (metadataLine != null) {
+                for (String entry : metadataLine.substring(METADATA_PREFIX.length()).split(";")) {
+                    String[] pair = entry.split("=", 2);
+                    if (pair.length != 2) {
+                        continue;
+                    }
+                    String value = pair[1].trim();
+                    switch (pair[0].trim().toLowerCase(Locale.ROOT)) {
+                        case "category": category = value; break;
+                        case "difficulty":
+                            difficulty = Difficulty.parse(value);
+                            if (difficulty == null) {
+                                rejected.add(new Issue(blockStartLine, "Invalid difficulty '" + value + "', expected easy, medium or hard"));
+                                return;
+                            }
+                            break;
+                        case "tags":
+                            tags = new ArrayList<>();
+                            for (String tag : value.split(",")) {
+                                if (!tag.isBlank()) {
+                                    tags.add(tag.trim());
+                                }
+                            }
+                            break;
+                        default: break; // Unknown keys are ignored so the format can grow
                     }
-                    currentQuestionBlock.clear();
-                } else {
-                    currentQuestionBlock.add(line);
                 }
             }
-            // Process the last block if file doesn't end with a blank line
-            if (currentQuestionBlock.size() == LINES_PER_QUESTION_BLOCK) {
-                addQuestionFromBlock(questions, currentQuestionBlock);
+            String questionText = block.get(first);
+            List<String> options = new ArrayList<>(block.subList(first + 1, first + 5));
+            String correctAnswerLetter = block.get(first + 5).toUpperCase(Locale.ROOT);
+            int correctOptionIndex;
+            switch (correctAnswerLetter) {
+                case "A": correctOptionIndex = 0; break;
+                case "B": correctOptionIndex = 1; break;
+                case "C": correctOptionIndex = 2; break;
+                case "D": correctOptionIndex = 3; break;
+                default:
+                    rejected.add(new Issue(blockStartLine, "Invalid correct answer letter '" + correctAnswerLetter + "'"));
+                    return; // Skip this question
             }
-        } catch (IOException e) {
-            System.err.println("Error loading questions from resource: " + resourceName + " - " + e.getMessage());
-            // Return empty list or throw custom exception
+            questionCount++;
+            sink.accept(new Question(questionText, options, correctOptionIndex, category, difficulty, tags), blockStartLine);
         }
-        return questions;
     }
 
-    private static void addQuestionFromBlock(List<Question> questions, List<String> block) {
-        String questionText = block.get(0);
-        List<String> options = new ArrayList<>(block.subList(1, 5));
-        String correctAnswerLetter = block.get(5).toUpperCase();
-        int correctOptionIndex = -1;
-        switch (correctAnswerLetter) {
-            case "A": correctOptionIndex = 0; break;
-            case "B": correctOptionIndex = 1; break;
-            case "C": correctOptionIndex = 2; break;
-            case "D": correctOptionIndex = 3; break;
-            default:
-                System.err.println("Warning: Invalid correct answer letter '" + correctAnswerLetter + "' for question: " + questionText);
-                return; // Skip this question
+    private static final class DuplicateDetector {
+        private final Map<String, Integer> firstLineByText = new HashMap<>();
+        private final List<Issue> duplicates = new ArrayList<>();
+
+        private void check(Question question, int lineNumber) {
+            String key = question.getQuestionText().toLowerCase(Locale.ROOT);
+            Integer firstLine = firstLineByText.putIfAbsent(key, lineNumber);
+            if (firstLine != null) {
+                duplicates.add(new Issue(lineNumber, "Duplicate of the question at line " + firstLine));
+            }
         }
-        questions.add(new Question(questionText, options, correctOptionIndex));
     }
 }
@@ -0,0 +1,91 @@
+package utcn.isp.quizapp.service;
+
+import java.util.Random;
+
+/**
+ * Draws the questions for a game as indexes into the shared question bank.
+ */
+public final class QuestionSelector {
+
+    // Below this many draws the sparse variant's linear lookups beat allocating an index array over the whole bank
+    private static final int SPARSE_LIMIT = 64;
+
+    private QuestionSelector() {
+    }
+
+    /**
+     * Picks {@code count} distinct indexes from {@code [0, bankSize)} in random order using a partial
+     * Fisher–Yates shuffle. Small draws from a large bank only record the swapped positions, so the
+     * work and garbage are O(count) rather than O(bankSize).
+     */
+    public static int[] selectIndexes(int bankSize, int count, Random random) {
+        int drawCount = Math.max(0, Math.min(count, bankSize));
+        if (drawCount > SPARSE_LIMIT || drawCount * 4 > bankSize) {
+            return selectDense(bankSize, drawCount, random);
+        }
+        int[] selected = new int[drawCount];
+        // Positions >= i whose value differs from the position itself, as parallel arrays
+        int[] swappedPositions = new int[drawCount];
+        int[] swappedValues = new int[drawCount];
+        int swappedCount = 0;
+        for (int i = 0; i < drawCount; i++) {
+            int j = i + random.nextInt(bankSize - i);
+            int valueAtI = i;
+            int valueAtJ = j;
+            int slotOfJ = -1;
+            for (int s = 0; s < swappedCount; s++) {
+                if (swappedPositions[s] == i) {
+                    valueAtI = swappedValues[s];
+                }
+                if (swappedPositions[s] == j) {
+                    valueAtJ = swappedValues[s];
+                    slotOfJ = s;
+                }
+            }
+            selected[i] = valueAtJ;
+            // Position i is never read again; position j now holds what was at i
+            if (slotOfJ >= 0) {
+                swappedValues[slotOfJ] = valueAtI;
+            } else if (j != i) {
+                swappedPositions[swappedCount] = j;
+                swappedValues[swappedCount] = valueAtI;
+                swappedCount++;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Picks {@code count} distinct ids from {@code pool} (e.g. one category/difficulty of the index),
+     * or from every id in {@code [0, bankSize)} when {@code pool} is null.
+     */
+    public static int[] selectFrom(int[] pool, int bankSize, int count, Random random) {
+        if (pool == null) {
+            return selectIndexes(bankSize, count, random);
+        }
+        int[] selected = selectIndexes(pool.length, count, random);
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = pool[selected[i]];
+        }
+        return selected;
+    }
+
+    private static int[] selectDense(int bankSize, int drawCount, Random random) {
+        int[] indexes = new int[bankSize];
+        for (int i = 0; i < bankSize; i++) {
+            indexes[i] = i;
+        }
+        for (int i = 0; i < drawCount; i++) {
+            int j = i + random.nextInt(bankSize - i);
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        if (drawCount == bankSize) {
+            return indexes;
+        }
+        int[] selected = new int[drawCount];
+        System.arraycopy(indexes, 0, selected, 0, drawCount);
+        return selected;
+    }
+}
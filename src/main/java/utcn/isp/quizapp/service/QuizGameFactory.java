@@ -0,0 +1,85 @@
+package utcn.isp.quizapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import utcn.isp.quizapp.model.Difficulty;
+import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.QuestionMix;
+import utcn.isp.quizapp.model.QuizGame;
+import utcn.isp.quizapp.model.ShuffledQuestion;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Deals new games from the shared question bank. The game settings live here once for the application
+ * instead of in every session-scoped {@link QuizSessionService}.
+ */
+@Service
+public class QuizGameFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizGameFactory.class);
+
+    private final QuestionBank questionBank; // Shared, loaded once per application
+    private final int questionsPerGame;
+    private final QuestionMix questionMix; // Per-difficulty counts; empty means questionsPerGame drawn uniformly
+    private final String defaultTopic;
+
+    public QuizGameFactory(QuestionBank questionBank,
+                           @Value("${quiz.questions.per-game:-1}") int questionsPerGame,
+                           @Value("${quiz.questions.mix:}") String questionMix,
+                           @Value("${quiz.questions.default-topic:}") String defaultTopic) {
+        this.questionBank = questionBank;
+        this.questionsPerGame = questionsPerGame;
+        this.questionMix = QuestionMix.parse(questionMix);
+        this.defaultTopic = defaultTopic;
+    }
+
+    public QuizGame newGame(String userName) {
+        return newGame(userName, defaultTopic);
+    }
+
+    /**
+     * @param topic category (or tag) to draw from; null or blank for the whole bank
+     */
+    public QuizGame newGame(String userName, String topic) {
+        QuestionIndex index = questionBank.getIndex(); // Keep this snapshot even if the bank is reloaded
+        List<Question> allQuestions = index.getQuestions();
+        if (allQuestions.isEmpty()) {
+            logger.warn("Starting game for user '{}' with no questions loaded.", userName);
+            return new QuizGame(Collections.emptyList(), userName);
+        }
+        Random random = ThreadLocalRandom.current();
+        int[] questionIds = selectQuestionIds(index, topic, random);
+        long[] optionOrders = new long[questionIds.length];
+        for (int i = 0; i < questionIds.length; i++) {
+            optionOrders[i] = ShuffledQuestion.randomOrder(allQuestions.get(questionIds[i]).getOptions().size(), random);
+        }
+        return new QuizGame(allQuestions, questionIds, optionOrders, userName);
+    }
+
+    // With a mix, difficulties are drawn easiest first and a short pool simply yields fewer questions
+    private int[] selectQuestionIds(QuestionIndex index, String topic, Random random) {
+        int bankSize = index.size();
+        if (questionMix.isEmpty()) {
+            int[] pool = index.ids(topic, null);
+            int available = (pool == null) ? bankSize : pool.length;
+            int desiredCount = (questionsPerGame > 0) ? Math.min(questionsPerGame, available) : available;
+            return QuestionSelector.selectFrom(pool, bankSize, desiredCount, random);
+        }
+        int[] selected = new int[questionMix.getTotal()];
+        int selectedCount = 0;
+        for (Map.Entry<Difficulty, Integer> entry : questionMix.getCounts().entrySet()) {
+            int[] picked = QuestionSelector.selectFrom(index.ids(topic, entry.getKey()), bankSize, entry.getValue(), random);
+            System.arraycopy(picked, 0, selected, selectedCount, picked.length);
+            selectedCount += picked.length;
+        }
+        return (selectedCount == selected.length) ? selected : Arrays.copyOf(selected, selectedCount);
+    }
+}
@@ -1,94 +1,84 @@
 package utcn.isp.quizapp.service;
 
-import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.CompletedQuiz;
 import utcn.isp.quizapp.model.QuizGame;
+import utcn.isp.quizapp.model.ShuffledQuestion;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.annotation.SessionScope;
-
-import jakarta.servlet.http.HttpSession; // Added import
-
-import java.io.Serializable;
-import java.util.Collections;
-import java.util.List;
-import org.slf4j.Logger; 
-import org.slf4j.LoggerFactory; 
-
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * The game of one HTTP session. Kept small, since there is one per player: the game itself holds only
+ * question ids into the shared bank, option order codes and primitives, and the settings shared by all
+ * sessions stay in singletons ({@link QuizGameFactory}). Not Serializable: a game is tracked and timed by
+ * this process ({@link ActiveSessionsService}), so Tomcat leaves it out when persisting sessions.
+ */
 @Service
 @SessionScope // Crucial: one instance per user session
-public class QuizSessionService implements Serializable { // Serializable for session replication if needed
+public class QuizSessionService {
 
-    private static final long serialVersionUID = 1L;
-    private static final Logger logger = LoggerFactory.getLogger(QuizSessionService.class); // SLF4J Logger
+    private static final long QUIZ_DURATION_MS = 60 * 1000; // 1 minute
 
-    private final ActiveSessionsService activeSessionsService; // Added dependency
-    private final HttpSession httpSession; // Added dependency
+    private final ActiveSessionsService activeSessionsService;
+    private final QuizGameFactory quizGameFactory;
+    private final GameMetrics gameMetrics;
+    private final QuestionAnalyticsService questionAnalyticsService;
+    private final long bonusTimePerAnswerMillis; // 0 when bonus time is disabled
 
     private QuizGame currentGame;
-    private List<Question> allQuestions;
-    private final String questionsResourceName;
-    private static final long QUIZ_DURATION_MS = 60 * 1000; // 1 minute
-    private final boolean bonusTimeEnabled;
-    private final long bonusTimePerAnswerMillis;
-    private long earnedBonusTimeMillis;
-    private final int questionsPerGame;
-
-    public QuizSessionService(@Value("${quiz.questions.file-name:questions.txt}") String questionsResourceName,
-                              ActiveSessionsService activeSessionsService, // Added dependency
-                              HttpSession httpSession, // Added dependency
+
+    public QuizSessionService(QuizGameFactory quizGameFactory,
+                              ActiveSessionsService activeSessionsService,
+                              GameMetrics gameMetrics,
+                              QuestionAnalyticsService questionAnalyticsService,
                               @Value("${quiz.bonus-time.enabled:false}") boolean bonusTimeEnabled,
-                              @Value("${quiz.bonus-time.seconds:30}") long bonusTimeSeconds,
-                              @Value("${quiz.questions.per-game:-1}") int questionsPerGame) { // new configuration
-        this.questionsResourceName = questionsResourceName;
-        this.activeSessionsService = activeSessionsService; // Initialize dependency
-        this.httpSession = httpSession; // Initialize dependency
-        this.bonusTimeEnabled = bonusTimeEnabled;
-        this.bonusTimePerAnswerMillis = Math.max(0L, bonusTimeSeconds) * 1000L;
-        this.earnedBonusTimeMillis = 0L;
-        this.questionsPerGame = questionsPerGame;
-        logger.info("Attempting to load questions from resource: {}", this.questionsResourceName); // Log the filename
-        loadAllQuestions();
-    }
-
-    private void loadAllQuestions() {
-        this.allQuestions = QuestionLoader.loadQuestionsFromClasspath(questionsResourceName);
-        if (this.allQuestions == null || this.allQuestions.isEmpty()) {
-            logger.error("FATAL: No questions loaded or questions file is empty/malformed. Check '{}' in classpath.", questionsResourceName); // Use logger
-            this.allQuestions = Collections.emptyList();
-        } else {
-            logger.info("Successfully loaded {} questions from {}.", allQuestions.size(), questionsResourceName);
-        }
+                              @Value("${quiz.bonus-time.seconds:30}") long bonusTimeSeconds) {
+        this.quizGameFactory = quizGameFactory;
+        this.activeSessionsService = activeSessionsService;
+        this.gameMetrics = gameMetrics;
+        this.questionAnalyticsService = questionAnalyticsService;
+        this.bonusTimePerAnswerMillis = bonusTimeEnabled ? Math.max(0L, bonusTimeSeconds) * 1000L : 0L;
     }
 
     public void startNewGame(String userName) {
-        if (allQuestions.isEmpty()) {
-            logger.warn("Starting game for user '{}' with no questions loaded.", userName);
-            this.currentGame = new QuizGame(Collections.emptyList(), userName);
-            activeSessionsService.addSession(httpSession.getId(), this.currentGame); // Add session
-            return;
-        }
-        List<Question> currentQuizQuestions = new java.util.ArrayList<>(allQuestions);
-        Collections.shuffle(currentQuizQuestions);
-        int desiredCount = currentQuizQuestions.size();
-        if (questionsPerGame > 0) {
-            desiredCount = Math.min(questionsPerGame, desiredCount);
-        }
-        List<Question> selectedQuestions = new java.util.ArrayList<>(currentQuizQuestions.subList(0, desiredCount));
-        List<Question> randomizedQuestions = new java.util.ArrayList<>(selectedQuestions.size());
-        for (Question question : selectedQuestions) {
-            randomizedQuestions.add(question.shuffledCopy());
-        }
-        this.currentGame = new QuizGame(randomizedQuestions, userName);
-        activeSessionsService.addSession(httpSession.getId(), this.currentGame); // Add session
-        this.earnedBonusTimeMillis = 0L;
+        long start = System.nanoTime();
+        startGame(quizGameFactory.newGame(userName));
+        gameMetrics.gameStarted(System.nanoTime() - start);
+    }
+
+    /**
+     * @param topic category (or tag) to draw from; null or blank for the whole bank
+     */
+    public void startNewGame(String userName, String topic) {
+        long start = System.nanoTime();
+        startGame(quizGameFactory.newGame(userName, topic));
+        gameMetrics.gameStarted(System.nanoTime() - start);
+    }
+
+    private void startGame(QuizGame game) {
+        this.currentGame = game;
+        activeSessionsService.addSession(sessionId(), game, getDeadlineMillis());
+    }
+
+    // Every call comes from a request of this session, so its id is always at hand
+    private static String sessionId() {
+        return RequestContextHolder.currentRequestAttributes().getSessionId();
     }
 
     public QuizGame getCurrentGame() {
         return currentGame;
     }
 
-    public Question getCurrentQuestion() {
-        return (currentGame != null) ? currentGame.getCurrentQuestion() : null;
+    /**
+     * The current question, for showing it to the player; also marks the player as still there.
+     */
+    public ShuffledQuestion getCurrentQuestion() {
+        if (currentGame == null) {
+            return null;
+        }
+        activeSessionsService.sessionSeen(sessionId());
+        return currentGame.getCurrentQuestion();
     }
 
     public boolean isGameActive() {
@@ -100,25 +90,65 @@ public class QuizSessionService implements Serializable { // Serializable for se
     }
     
     public boolean isTimeUp() {
-        return currentGame != null && currentGame.isTimeUp(QUIZ_DURATION_MS + earnedBonusTimeMillis);
+        return currentGame != null && currentGame.isTimeUp(QUIZ_DURATION_MS + currentGame.getEarnedBonusMillis());
     }
 
     public boolean submitAnswer(int selectedOptionIndex) {
         if (currentGame == null || isTimeUp()) {
             return false;
         }
-        boolean correct = currentGame.answerQuestion(selectedOptionIndex);
+        long start = System.nanoTime();
+        ShuffledQuestion question = currentGame.getCurrentQuestion();
+        boolean correct = currentGame.answerQuestion(question, selectedOptionIndex);
+        if (question != null) {
+            questionAnalyticsService.recordAnswer(question.getQuestion(), correct, currentGame.getLastAnswerMillis());
+        }
         if (correct && isBonusTimeActive()) {
-            earnedBonusTimeMillis += bonusTimePerAnswerMillis;
+            currentGame.addBonusTime(bonusTimePerAnswerMillis);
         }
         currentGame.moveToNextQuestion();
+        activeSessionsService.sessionUpdated(sessionId(), getDeadlineMillis());
+        gameMetrics.answerSubmitted(correct, System.nanoTime() - start);
         return correct;
     }
 
+    /**
+     * @return true once the current game can take no more answers (all questions answered or time up)
+     */
+    public boolean isGameFinished() {
+        return currentGame != null && (!currentGame.hasNextQuestion() || isTimeUp());
+    }
+
+    /**
+     * Records the current game on the leaderboard and in the completed results (unless the server already
+     * did so when its time ran out), then ends it, so a second call (e.g. a reloaded game-over page)
+     * records nothing.
+     *
+     * @return the recorded result, or null without a current game
+     */
+    public CompletedQuiz finishGame() {
+        if (currentGame == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        CompletedQuiz result = activeSessionsService.finishGame(sessionId(), currentGame);
+        currentGame = null;
+        gameMetrics.gameOverServed(System.nanoTime() - start);
+        return result;
+    }
+
+    public String getFeedbackMessage(boolean correct) {
+        String message = correct ? "Correct answer!" : "Incorrect answer.";
+        if (correct && isBonusTimeActive()) {
+            message += " +" + getBonusTimeSeconds() + "s bonus.";
+        }
+        return message;
+    }
+
     public void endGame() {
         // The game naturally ends when time is up or all questions are answered.
         // This method remains available for explicit cleanup if needed.
-        activeSessionsService.removeSession(httpSession.getId()); // Remove session
+        activeSessionsService.removeSession(sessionId());
     }
 
     public int getScore() {
@@ -129,18 +159,22 @@ public class QuizSessionService implements Serializable { // Serializable for se
         return (currentGame != null) ? currentGame.getUserName() : "";
     }
 
+    private long getDeadlineMillis() {
+        return currentGame.getStartTime() + QUIZ_DURATION_MS + currentGame.getEarnedBonusMillis();
+    }
+
     public long getRemainingTimeSeconds() {
         if (currentGame == null) {
             return 0L;
         }
         long elapsed = System.currentTimeMillis() - currentGame.getStartTime();
-        long allowedDuration = QUIZ_DURATION_MS + earnedBonusTimeMillis;
+        long allowedDuration = QUIZ_DURATION_MS + currentGame.getEarnedBonusMillis();
         long remainingMillis = Math.max(0L, allowedDuration - elapsed);
         return remainingMillis / 1000;
     }
 
     public boolean isBonusTimeActive() {
-        return bonusTimeEnabled && bonusTimePerAnswerMillis > 0;
+        return bonusTimePerAnswerMillis > 0;
     }
 
     public long getBonusTimeSeconds() {
@@ -0,0 +1,222 @@
+package utcn.isp.quizapp.service;
+
+import utcn.isp.quizapp.model.CompletedQuiz;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of completed quizzes, one CSV segment per day ({@code results-YYYY-MM-DD.csv}).
+ * <p>
+ * Each line is {@code v2,completionTime,score,totalQuestions,answeredQuestions,durationSeconds,
+ * medianAnswerMillis,p90AnswerMillis,p99AnswerMillis,userName}; the user name comes last so it may contain
+ * commas. Lines written before answer times were kept have no {@code v2} tag and no answer times; they
+ * start with the completion time, so they cannot be mistaken for tagged ones. Days before today are sealed: their totals are
+ * cached in a {@code .summary} sidecar, so startup reads one small file per past day instead of
+ * scanning the whole history, and a day's records are only streamed when they are actually queried.
+ */
+class ResultsLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "results-";
+    private static final String SEGMENT_SUFFIX = ".csv";
+    private static final String SUMMARY_SUFFIX = ".summary";
+    private static final String FORMAT_TAG = "v2";
+
+    private final Path directory;
+    private final ReentrantLock writeLock = new ReentrantLock(); // Not synchronized: held across file I/O
+    private LocalDate currentDay;   // guarded by writeLock
+    private BufferedWriter writer;  // guarded by writeLock
+
+    /**
+     * Running totals over a set of results.
+     */
+    static final class Summary {
+        long count;
+        long totalQuestions;
+        long totalAnswered;
+        double totalAccuracyPercentage;
+        long totalDurationSeconds;
+
+        void add(CompletedQuiz quiz) {
+            count++;
+            totalQuestions += quiz.getTotalQuestions();
+            totalAnswered += quiz.getAnsweredQuestions();
+            totalAccuracyPercentage += quiz.getAccuracyPercentage();
+            totalDurationSeconds += quiz.getDurationSeconds();
+        }
+
+        void add(Summary other) {
+            count += other.count;
+            totalQuestions += other.totalQuestions;
+            totalAnswered += other.totalAnswered;
+            totalAccuracyPercentage += other.totalAccuracyPercentage;
+            totalDurationSeconds += other.totalDurationSeconds;
+        }
+    }
+
+    ResultsLog(String directory) throws IOException {
+        this.directory = Paths.get(directory);
+        Files.createDirectories(this.directory);
+    }
+
+    void append(CompletedQuiz quiz) throws IOException {
+        LocalDate day = quiz.getCompletionTime().toLocalDate();
+        String line = FORMAT_TAG + "," + quiz.getCompletionTime() + "," + quiz.getScore() + ","
+                + quiz.getTotalQuestions() + "," + quiz.getAnsweredQuestions() + "," + quiz.getDurationSeconds() + ","
+                + quiz.getMedianAnswerMillis() + "," + quiz.getP90AnswerMillis() + "," + quiz.getP99AnswerMillis() + ","
+                + quiz.getUserName().replace('\n', ' ').replace('\r', ' ');
+        writeLock.lock();
+        try {
+            if (!day.equals(currentDay)) {
+                closeWriter();
+                writer = Files.newBufferedWriter(segmentPath(day), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                currentDay = day;
+            }
+            writer.write(line);
+            writer.newLine();
+            writer.flush(); // Survives a process restart; a single record is small enough not to batch
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return the days that have a segment, oldest first
+     */
+    List<LocalDate> listDays() throws IOException {
+        List<LocalDate> days = new ArrayList<>();
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                try {
+                    days.add(LocalDate.parse(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (DateTimeParseException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        Collections.sort(days);
+        return days;
+    }
+
+    /**
+     * Streams one day's results in completion order without keeping them in memory.
+     */
+    void streamDay(LocalDate day, Consumer<CompletedQuiz> consumer) throws IOException {
+        Path segment = segmentPath(day);
+        if (!Files.exists(segment)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                CompletedQuiz quiz = parse(line);
+                if (quiz != null) {
+                    consumer.accept(quiz);
+                }
+            }
+        }
+    }
+
+    /**
+     * Totals for a sealed day, from its sidecar when it is up to date, otherwise computed once and cached.
+     */
+    Summary summaryFor(LocalDate day) throws IOException {
+        Path segment = segmentPath(day);
+        Path summaryPath = directory.resolve(SEGMENT_PREFIX + day + SUMMARY_SUFFIX);
+        if (Files.exists(summaryPath)
+                && Files.getLastModifiedTime(summaryPath).compareTo(Files.getLastModifiedTime(segment)) >= 0) {
+            Summary cached = readSummary(summaryPath);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Summary summary = new Summary();
+        streamDay(day, summary::add);
+        Path temp = summaryPath.resolveSibling(summaryPath.getFileName() + ".tmp");
+        Files.writeString(temp, summary.count + "," + summary.totalQuestions + "," + summary.totalAnswered + ","
+                + summary.totalAccuracyPercentage + "," + summary.totalDurationSeconds, StandardCharsets.UTF_8);
+        Files.move(temp, summaryPath, StandardCopyOption.REPLACE_EXISTING);
+        return summary;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            closeWriter();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            currentDay = null;
+        }
+    }
+
+    private Path segmentPath(LocalDate day) {
+        return directory.resolve(SEGMENT_PREFIX + day + SEGMENT_SUFFIX);
+    }
+
+    private static Summary readSummary(Path summaryPath) throws IOException {
+        String[] parts = Files.readString(summaryPath, StandardCharsets.UTF_8).trim().split(",");
+        if (parts.length != 5) {
+            return null;
+        }
+        try {
+            Summary summary = new Summary();
+            summary.count = Long.parseLong(parts[0]);
+            summary.totalQuestions = Long.parseLong(parts[1]);
+            summary.totalAnswered = Long.parseLong(parts[2]);
+            summary.totalAccuracyPercentage = Double.parseDouble(parts[3]);
+            summary.totalDurationSeconds = Long.parseLong(parts[4]);
+            return summary;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static CompletedQuiz parse(String line) {
+        boolean tagged = line.startsWith(FORMAT_TAG + ",");
+        String[] parts = tagged ? line.substring(FORMAT_TAG.length() + 1).split(",", 9) : line.split(",", 6);
+        if (parts.length != (tagged ? 9 : 6)) {
+            return null; // e.g. a line torn by a crash
+        }
+        try {
+            LocalDateTime completionTime = LocalDateTime.parse(parts[0]);
+            int score = Integer.parseInt(parts[1]);
+            int totalQuestions = Integer.parseInt(parts[2]);
+            int answeredQuestions = Integer.parseInt(parts[3]);
+            long durationSeconds = Long.parseLong(parts[4]);
+            if (!tagged) {
+                return new CompletedQuiz(parts[5], score, totalQuestions, answeredQuestions, durationSeconds, completionTime);
+            }
+            return new CompletedQuiz(parts[8], score, totalQuestions, answeredQuestions, durationSeconds, completionTime,
+                    Long.parseLong(parts[5]), Long.parseLong(parts[6]), Long.parseLong(parts[7]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package utcn.isp.quizapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * A set of Server-Sent Events subscribers served by one daemon thread. Subscribing, broadcasting and
+ * any task passed to {@link #execute} or {@link #scheduleWithFixedDelay} run on that thread, so they
+ * are ordered with respect to each other. Each event is serialized once, whatever the number of
+ * subscribers, and a slow subscriber never holds up the thread that published the event.
+ * <p>
+ * The broadcaster thread never writes to a connection itself: it puts each event in every subscriber's
+ * bounded queue, and a sender thread drains that queue. A stalled viewer (a projector on bad Wi-Fi) thus
+ * only blocks its own sender; once {@value #MAX_PENDING_EVENTS} events wait for it, it is dropped and its
+ * browser reconnects and starts again from a snapshot.
+ */
+final class SseBroadcaster {
+
+    private static final long EMITTER_TIMEOUT_MILLIS = 30 * 60 * 1000L; // EventSource reconnects by itself
+    private static final long HEARTBEAT_SECONDS = 20; // Lets us notice subscribers that went away
+    private static final int MAX_PENDING_EVENTS = 1024;
+    private static final PendingEvent PING = new PendingEvent(null, null);
+
+    private final ObjectMapper objectMapper;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>(); // Only added to on the executor
+    private final ScheduledExecutorService executor;
+    private final ExecutorService senders; // One task at a time per subscriber, blocked only by that subscriber
+
+    private record PendingEvent(String name, String json) { // A comment-only ping when name is null
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<PendingEvent> pending = new ArrayBlockingQueue<>(MAX_PENDING_EVENTS);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Called on the broadcaster thread only
+        private void offer(PendingEvent event) {
+            if (closed) {
+                return;
+            }
+            if (!pending.offer(event)) {
+                drop(); // Too far behind to catch up
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sendLater(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                PendingEvent event;
+                while (!closed && (event = pending.poll()) != null) {
+                    try {
+                        emitter.send((event.name() == null) ? SseEmitter.event().comment("ping")
+                                : SseEmitter.event().name(event.name()).data(event.json(), MediaType.APPLICATION_JSON));
+                    } catch (IOException | IllegalStateException e) {
+                        closed = true; // Disconnected; the container completes it
+                        subscribers.remove(this);
+                    }
+                }
+                draining.set(false);
+                // An event offered after the last poll but before the flag was cleared found it still set
+            } while (!closed && !pending.isEmpty() && draining.compareAndSet(false, true));
+            if (closed) {
+                pending.clear();
+            }
+        }
+
+        private void drop() {
+            closed = true;
+            subscribers.remove(this);
+            pending.clear();
+            sendLater(emitter::complete); // Waits for a send in progress, so not on the broadcaster thread
+        }
+    }
+
+    SseBroadcaster(String threadName, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senders = Executors.newCachedThreadPool(Thread.ofPlatform().name(threadName + "-sender-", 1).daemon().factory());
+        executor.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param snapshotJson evaluated on the broadcaster thread just before the subscriber starts receiving
+     *                     events; sent as a "snapshot" event unless it returns null
+     */
+    SseEmitter subscribe(Supplier<String> snapshotJson) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Subscriber subscriber = new Subscriber(emitter);
+        Runnable unsubscribe = () -> {
+            subscriber.closed = true;
+            subscribers.remove(subscriber);
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe.run());
+        execute(() -> {
+            String snapshot = snapshotJson.get();
+            if (snapshot != null) {
+                subscriber.offer(new PendingEvent("snapshot", snapshot));
+            }
+            subscribers.add(subscriber);
+        });
+        return emitter;
+    }
+
+    /**
+     * Serializes {@code payload} and sends it to all subscribers from the broadcaster thread. The payload
+     * should hold values copied on the calling thread. Does nothing without subscribers.
+     */
+    void publish(String eventName, Object payload) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        execute(() -> broadcast(eventName, toJson(payload)));
+    }
+
+    /**
+     * Queues an already serialized event for every subscriber; must be called on the broadcaster thread.
+     */
+    void broadcast(String eventName, String json) {
+        PendingEvent event = new PendingEvent(eventName, json);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    private void sendLater(Runnable task) {
+        try {
+            senders.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    void scheduleWithFixedDelay(Runnable task, long delayMillis) {
+        executor.scheduleWithFixedDelay(task, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event is not serializable: " + e.getMessage(), e);
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(PING);
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+}
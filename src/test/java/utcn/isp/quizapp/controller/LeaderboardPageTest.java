@@ -0,0 +1,80 @@
+package utcn.isp.quizapp.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import utcn.isp.quizapp.service.Leaderboard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LeaderboardPageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Leaderboard leaderboard;
+
+    @DynamicPropertySource
+    static void files(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("leaderboard-page-test");
+        registry.add("quiz.leaderboard.resource-name", () -> "none");
+        registry.add("quiz.leaderboard.save-path", () -> directory.resolve("leaderboard.txt").toString());
+        registry.add("quiz.results.log-dir", () -> directory.resolve("results").toString());
+        registry.add("quiz.leaderboard.page-size", () -> "2");
+    }
+
+    private String etagOf(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    @Test
+    void unchangedPageIsAnsweredWithNotModified() throws Exception {
+        leaderboard.addScore("etag-alice", 7);
+        leaderboard.addScore("etag-bob", 5);
+        leaderboard.addScore("etag-carol", 3);
+        String etag = etagOf("/leaderboard?page=1");
+
+        mockMvc.perform(get("/leaderboard?page=1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/leaderboard?page=2").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        // Every page past the end shows the last page, so they share its ETag
+        String lastPage = etagOf("/leaderboard?page=" + Integer.MAX_VALUE);
+        mockMvc.perform(get("/leaderboard?page=99").header("If-None-Match", lastPage))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void scoreChangeInvalidatesTheETag() throws Exception {
+        leaderboard.addScore("etag-dave", 4);
+        String etag = etagOf("/leaderboard");
+
+        leaderboard.addScore("etag-dave", 2); // Not a new best, nothing changes
+        mockMvc.perform(get("/leaderboard").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        leaderboard.addScore("etag-dave", 9);
+        String changed = mockMvc.perform(get("/leaderboard").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, changed);
+    }
+}
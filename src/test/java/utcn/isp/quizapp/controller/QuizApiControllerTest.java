@@ -0,0 +1,141 @@
+package utcn.isp.quizapp.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import utcn.isp.quizapp.service.Leaderboard;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class QuizApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Leaderboard leaderboard;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void files(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("quiz-api-test");
+        Path questions = directory.resolve("questions.txt");
+        Files.writeString(questions, """
+                First question?
+                Wrong 1
+                Right
+                Wrong 2
+                Wrong 3
+                B
+
+                Second question?
+                Right
+                Wrong 1
+                Wrong 2
+                Wrong 3
+                A
+                """, StandardCharsets.UTF_8);
+        registry.add("quiz.questions.external-path", questions::toString);
+        registry.add("quiz.leaderboard.resource-name", () -> "none");
+        registry.add("quiz.leaderboard.save-path", () -> directory.resolve("leaderboard.txt").toString());
+        registry.add("quiz.results.log-dir", () -> directory.resolve("results").toString());
+    }
+
+    private JsonNode json(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+
+    private static int indexOf(JsonNode options, String text) {
+        for (int i = 0; i < options.size(); i++) {
+            if (options.get(i).asText().equals(text)) {
+                return i;
+            }
+        }
+        throw new AssertionError(text + " not among " + options);
+    }
+
+    @Test
+    void playsAGameThroughTheApi() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        JsonNode started = json(mockMvc.perform(post("/api/quiz/start").param("username", "api-player").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value("api-player"))
+                .andExpect(jsonPath("$.totalQuestions").value(2))
+                .andExpect(jsonPath("$.finished").value(false))
+                .andExpect(jsonPath("$.question.number").value(1)));
+
+        JsonNode options = started.get("question").get("options");
+        assertEquals(4, options.size());
+        JsonNode afterFirst = json(mockMvc.perform(post("/api/quiz/answer")
+                        .param("answer", String.valueOf(indexOf(options, "Right"))).session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.correct").value(true))
+                .andExpect(jsonPath("$.state.score").value(1))
+                .andExpect(jsonPath("$.state.question.number").value(2)));
+
+        int wrong = indexOf(afterFirst.get("state").get("question").get("options"), "Wrong 2");
+        mockMvc.perform(post("/api/quiz/answer").param("answer", String.valueOf(wrong)).session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.correct").value(false))
+                .andExpect(jsonPath("$.state.finished").value(true))
+                .andExpect(jsonPath("$.state.question").doesNotExist());
+        mockMvc.perform(get("/api/quiz/question").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.answeredQuestions").value(2));
+        mockMvc.perform(post("/api/quiz/answer").param("answer", "0").session(session))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("game-finished"));
+
+        mockMvc.perform(post("/api/quiz/finish").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.score").value(1))
+                .andExpect(jsonPath("$.answeredQuestions").value(2))
+                .andExpect(jsonPath("$.incorrectAnswers").value(1))
+                .andExpect(jsonPath("$.rank").value(leaderboard.getRank("api-player")));
+        assertEquals(1, leaderboard.getScoresAround("api-player", 0).get(0).getScore());
+        mockMvc.perform(get("/api/quiz/question").session(session))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("no-game"));
+    }
+
+    @Test
+    void rejectsBadStartsAndRequestsWithoutAGame() throws Exception {
+        mockMvc.perform(post("/api/quiz/start").param("username", "  "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid-username"));
+
+        leaderboard.addScore("api-taken", 3);
+        mockMvc.perform(post("/api/quiz/start").param("username", "api-taken"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("username-exists"));
+        mockMvc.perform(post("/api/quiz/start").param("username", "api-taken").param("confirmOverwrite", "true"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/quiz/answer").param("answer", "0"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("no-game"));
+        mockMvc.perform(post("/api/quiz/finish"))
+                .andExpect(status().isNotFound());
+    }
+}
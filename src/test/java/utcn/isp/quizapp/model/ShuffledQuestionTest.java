@@ -0,0 +1,79 @@
+package utcn.isp.quizapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShuffledQuestionTest {
+
+    private static Question questionWith(int optionCount, int correctIndex) {
+        List<String> options = new ArrayList<>();
+        for (int i = 0; i < optionCount; i++) {
+            options.add("Option " + i);
+        }
+        return new Question("Which one?", options, correctIndex);
+    }
+
+    @Test
+    void everyOrderIsAPermutationThatMapsBackToTheOriginalOption() {
+        Random random = new Random(5);
+        for (int optionCount = 2; optionCount <= ShuffledQuestion.MAX_SHUFFLED_OPTIONS; optionCount++) {
+            Question question = questionWith(optionCount, optionCount - 1);
+            for (int run = 0; run < 50; run++) {
+                long order = ShuffledQuestion.randomOrder(optionCount, random);
+                assertNotEquals(ShuffledQuestion.IDENTITY_ORDER, order);
+                ShuffledQuestion shuffled = new ShuffledQuestion(question, order);
+
+                Set<Integer> originals = new HashSet<>();
+                int correctShown = 0;
+                for (int position = 0; position < optionCount; position++) {
+                    int original = ShuffledQuestion.originalIndex(order, position);
+                    assertTrue(originals.add(original), "option " + original + " shown twice");
+                    assertEquals("Option " + original, shuffled.getOptions().get(position));
+                    if (shuffled.isCorrect(position)) {
+                        assertEquals(optionCount - 1, original);
+                        correctShown++;
+                    }
+                }
+                assertEquals(optionCount, originals.size());
+                assertEquals(1, correctShown);
+            }
+        }
+    }
+
+    @Test
+    void identityOrderKeepsTheOriginalOrder() {
+        ShuffledQuestion shuffled = new ShuffledQuestion(questionWith(4, 2), ShuffledQuestion.IDENTITY_ORDER);
+
+        assertEquals(List.of("Option 0", "Option 1", "Option 2", "Option 3"), shuffled.getOptions());
+        assertTrue(shuffled.isCorrect(2));
+        assertFalse(shuffled.isCorrect(4));
+        assertFalse(shuffled.isCorrect(-1));
+    }
+
+    @Test
+    void ordersThatCannotBePackedStayIdentity() {
+        Random random = new Random(5);
+        assertEquals(ShuffledQuestion.IDENTITY_ORDER, ShuffledQuestion.randomOrder(1, random));
+        assertEquals(ShuffledQuestion.IDENTITY_ORDER, ShuffledQuestion.randomOrder(ShuffledQuestion.MAX_SHUFFLED_OPTIONS + 1, random));
+    }
+
+    @Test
+    void allOrdersOfThreeOptionsAreDrawn() {
+        Random random = new Random(9);
+        Set<Long> orders = new HashSet<>();
+        for (int run = 0; run < 600; run++) {
+            orders.add(ShuffledQuestion.randomOrder(3, random));
+        }
+        assertEquals(6, orders.size());
+    }
+}
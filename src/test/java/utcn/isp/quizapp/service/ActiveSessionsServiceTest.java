@@ -0,0 +1,142 @@
+package utcn.isp.quizapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utcn.isp.quizapp.model.CompletedQuiz;
+import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.QuizGame;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ActiveSessionsServiceTest {
+
+    private static final List<Question> QUESTIONS = List.of(
+            new Question("One?", List.of("A", "B", "C", "D"), 0),
+            new Question("Two?", List.of("A", "B", "C", "D"), 1));
+
+    @TempDir
+    Path directory;
+
+    private Leaderboard leaderboard;
+    private CompletedQuizService completedQuizService;
+    private ActiveSessionsService sessions;
+
+    @BeforeEach
+    void start() {
+        start(30);
+    }
+
+    // No grace after the deadline, so tests do not wait for it
+    private void start(long abandonIdleSeconds) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DashboardEventsService dashboardEvents = new DashboardEventsService(new ObjectMapper());
+        leaderboard = new Leaderboard("none", directory.resolve("leaderboard.txt").toString(), true, 3600, 10_000, 100,
+                registry);
+        leaderboard.initializeLeaderboard();
+        completedQuizService = new CompletedQuizService(dashboardEvents, "", 10_000, 0);
+        sessions = new ActiveSessionsService(dashboardEvents, leaderboard, completedQuizService,
+                new GameMetrics(registry), registry, 0, abandonIdleSeconds);
+    }
+
+    @AfterEach
+    void stop() {
+        sessions.shutdown();
+        leaderboard.shutdown();
+    }
+
+    private static QuizGame oneAnswerGame(String userName) {
+        QuizGame game = new QuizGame(QUESTIONS, userName);
+        game.answerQuestion(game.getCurrentQuestion(), 0);
+        game.moveToNextQuestion();
+        return game;
+    }
+
+    private static void await(int expectedCount, CompletedQuizService service) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (service.getCompletedQuizCount() < expectedCount) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Only " + service.getCompletedQuizCount() + " of " + expectedCount + " games recorded");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void gameIsRecordedOnceWhenGameOverRacesTheDeadline() throws Exception {
+        int gameCount = 300;
+        long deadlineMillis = System.currentTimeMillis() + 200;
+        List<QuizGame> games = new ArrayList<>();
+        for (int i = 0; i < gameCount; i++) {
+            QuizGame game = oneAnswerGame("player" + i);
+            games.add(game);
+            sessions.addSession("session" + i, game, deadlineMillis);
+        }
+
+        // Every player reaches the game-over page right as the deadline thread finishes the games
+        ExecutorService players = Executors.newFixedThreadPool(8);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<CompletedQuiz>> shown = new ArrayList<>();
+        for (int i = 0; i < gameCount; i++) {
+            String sessionId = "session" + i;
+            QuizGame game = games.get(i);
+            shown.add(players.submit(() -> {
+                go.await();
+                return sessions.finishGame(sessionId, game);
+            }));
+        }
+        Thread.sleep(Math.max(0L, deadlineMillis - System.currentTimeMillis()));
+        go.countDown();
+        for (int i = 0; i < gameCount; i++) {
+            CompletedQuiz result = shown.get(i).get();
+            assertSame(games.get(i).getResult(), result, "The page must show the recorded result");
+        }
+        players.shutdown();
+
+        await(gameCount, completedQuizService);
+        Thread.sleep(200); // A second recording of any game would show up here
+        assertEquals(gameCount, completedQuizService.getCompletedQuizCount());
+        assertEquals(gameCount, leaderboard.getUserCount());
+        assertEquals(0, sessions.getActiveSessionCount());
+        games.forEach(game -> assertEquals(1, game.getResult().getScore()));
+    }
+
+    @Test
+    void gameOfActivePlayerIsRecordedAsTimedOut() throws Exception {
+        QuizGame game = oneAnswerGame("late");
+        sessions.addSession("session", game, System.currentTimeMillis() + 50); // Seen 50 ms before its deadline
+
+        await(1, completedQuizService);
+
+        assertEquals(1, sessions.getTimedOutGameCount());
+        assertEquals(0, sessions.getAbandonedGameCount());
+        assertEquals(1, game.getResult().getScore());
+        assertEquals(1, leaderboard.getUserCount());
+    }
+
+    @Test
+    void gameOfIdlePlayerIsRecordedAsAbandoned() throws Exception {
+        stop();
+        start(0); // Any time without a request before the deadline counts as gone
+        QuizGame game = oneAnswerGame("gone");
+        sessions.addSession("session", game, System.currentTimeMillis() + 50);
+
+        await(1, completedQuizService);
+
+        assertEquals(0, sessions.getTimedOutGameCount());
+        assertEquals(1, sessions.getAbandonedGameCount());
+        assertEquals(1, game.getResult().getScore(), "An abandoned game keeps the points already earned");
+    }
+}
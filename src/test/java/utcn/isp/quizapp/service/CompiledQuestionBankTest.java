@@ -0,0 +1,95 @@
+package utcn.isp.quizapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utcn.isp.quizapp.model.Difficulty;
+import utcn.isp.quizapp.model.Question;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledQuestionBankTest {
+
+    private static final String[] CATEGORIES = {"Threads", "Scheduling", "Memory"};
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    @TempDir
+    Path directory;
+
+    private List<Question> compileAndOpen(int count) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append("@category=").append(CATEGORIES[i % 3])
+                    .append("; difficulty=").append(DIFFICULTIES[i % 5 % 3])
+                    .append("; tags=").append((i % 2 == 0) ? "rtos, Locks" : "rtos").append('\n')
+                    .append("Question ").append(i).append("?\nA\nB\nC\nD\nB\n\n");
+        }
+        Path source = directory.resolve("questions.txt");
+        Files.writeString(source, text.toString(), StandardCharsets.UTF_8);
+        Path compiled = directory.resolve("questions.qbank");
+        CompiledQuestionBank.compile(QuestionLoader.loadQuestionsFromFile(source), compiled);
+        return CompiledQuestionBank.open(compiled);
+    }
+
+    @Test
+    void storedIndexMatchesIndexBuiltFromQuestions() throws IOException {
+        List<Question> mapped = compileAndOpen(40);
+        QuestionIndex stored = QuestionIndex.of(mapped);
+        QuestionIndex rebuilt = new QuestionIndex(new ArrayList<>(mapped));
+
+        assertEquals(rebuilt.getCategories(), stored.getCategories());
+        List<String> topics = new ArrayList<>(Arrays.asList(null, "threads", "MEMORY", "locks", "rtos", "unknown"));
+        for (String topic : topics) {
+            assertArrayEquals(rebuilt.ids(topic, null), stored.ids(topic, null), "topic " + topic);
+            for (Difficulty difficulty : Difficulty.values()) {
+                assertArrayEquals(rebuilt.ids(topic, difficulty), stored.ids(topic, difficulty),
+                        "topic " + topic + ", " + difficulty);
+            }
+        }
+    }
+
+    @Test
+    void rejectsIndexPointingPastTheBank() throws IOException {
+        compileAndOpen(4);
+        Path compiled = directory.resolve("questions.qbank");
+        byte[] content = Files.readAllBytes(compiled);
+        // Both tags end with hard question 2; make the last one refer to a question that does not exist
+        content[content.length - 1] = 99;
+        Files.write(compiled, content);
+
+        assertThrows(IOException.class, () -> CompiledQuestionBank.open(compiled));
+    }
+
+    @Test
+    void rejectsCorruptRecords() throws IOException {
+        compileAndOpen(4);
+        Path compiled = directory.resolve("questions.qbank");
+        byte[] original = Files.readAllBytes(compiled);
+        int record = (int) ByteBuffer.wrap(original).getLong(20 + 8 * 2); // Question 2, after the 20-byte header
+
+        assertRejected(compiled, original, content -> content[record + 1] = -1);      // Option count
+        assertRejected(compiled, original, content -> content[record + 1] = 17);      // More options than can be shuffled
+        assertRejected(compiled, original, content -> content[record] = 4);           // Correct option out of range
+        assertRejected(compiled, original, content -> content[record + 2] = 7);       // Difficulty
+        assertRejected(compiled, original, content -> ByteBuffer.wrap(content).putInt(record + 3, -5));   // Category length
+        assertRejected(compiled, original, content -> ByteBuffer.wrap(content).putInt(record + 3, 1000)); // Runs past the record
+    }
+
+    private static void assertRejected(Path compiled, byte[] original, Consumer<byte[]> corruption) throws IOException {
+        byte[] content = original.clone();
+        corruption.accept(content);
+        Files.write(compiled, content);
+        assertThrows(IOException.class, () -> CompiledQuestionBank.open(compiled));
+    }
+}
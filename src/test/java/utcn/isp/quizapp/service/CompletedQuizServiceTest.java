@@ -0,0 +1,78 @@
+package utcn.isp.quizapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utcn.isp.quizapp.model.CompletedQuiz;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompletedQuizServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private CompletedQuizService open(int capacity) {
+        CompletedQuizService service = new CompletedQuizService(new DashboardEventsService(new ObjectMapper()),
+                directory.toString(), capacity, 0);
+        service.loadHistory();
+        return service;
+    }
+
+    private static CompletedQuiz quiz(String userName, int score, int durationSeconds, LocalDateTime completionTime) {
+        return new CompletedQuiz(userName, score, 10, 8, durationSeconds, completionTime);
+    }
+
+    private static List<String> names(List<CompletedQuiz> quizzes) {
+        return quizzes.stream().map(CompletedQuiz::getUserName).toList();
+    }
+
+    private static void assertAggregates(CompletedQuizService service, int count, double averageAccuracy,
+                                         double averageDuration) {
+        assertEquals(count, service.getCompletedQuizCount());
+        assertEquals(10 * count, service.getTotalQuestionsAsked());
+        assertEquals(8 * count, service.getTotalAnsweredQuestions());
+        assertEquals(averageAccuracy, service.getAverageAccuracyPercentage(), 1e-9);
+        assertEquals(averageDuration, service.getAverageDurationSeconds(), 1e-9);
+    }
+
+    @Test
+    void ringKeepsNewestWhileAggregatesCoverEveryResult() {
+        CompletedQuizService service = new CompletedQuizService(new DashboardEventsService(new ObjectMapper()), "", 3, 0);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= 5; i++) {
+            service.addCompletedQuiz(quiz("user" + i, 2 * i, 10 * i, now)); // Accuracy 20, 40, 60, 80, 100 %
+        }
+
+        assertEquals(List.of("user5", "user4", "user3"), names(service.getCompletedQuizzes()));
+        assertAggregates(service, 5, 60.0, 30.0);
+    }
+
+    @Test
+    void restartRestoresAggregatesAndNewestResultsAcrossDays() throws IOException {
+        LocalDateTime today = LocalDateTime.now();
+        try (ResultsLog log = new ResultsLog(directory.toString())) {
+            log.append(quiz("older1", 2, 10, today.minusDays(2)));
+            log.append(quiz("older2", 4, 20, today.minusDays(2)));
+            log.append(quiz("yesterday", 6, 30, today.minusDays(1)));
+        }
+        CompletedQuizService service = open(3);
+        service.addCompletedQuiz(quiz("today1", 8, 40, today));
+        service.addCompletedQuiz(quiz("today2", 2, 50, today));
+        service.closeHistory();
+
+        CompletedQuizService restarted = open(3);
+
+        assertEquals(List.of("today2", "today1", "yesterday"), names(restarted.getCompletedQuizzes()));
+        assertAggregates(restarted, 5, 44.0, 30.0);
+        restarted.addCompletedQuiz(quiz("today3", 8, 60, today));
+        assertEquals(List.of("today3", "today2", "today1"), names(restarted.getCompletedQuizzes()));
+        assertAggregates(restarted, 6, 50.0, 35.0);
+        restarted.closeHistory();
+    }
+}
@@ -0,0 +1,72 @@
+package utcn.isp.quizapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencySketchTest {
+
+    @Test
+    void bucketsAreExactBelow32ThenSixteenPerPowerOfTwo() {
+        assertEquals(0, LatencySketch.bucketOf(0));
+        assertEquals(31, LatencySketch.bucketOf(31));
+        assertEquals(32, LatencySketch.bucketOf(32));
+        assertEquals(32, LatencySketch.bucketOf(33));
+        assertEquals(47, LatencySketch.bucketOf(63));
+        assertEquals(48, LatencySketch.bucketOf(64));
+        assertEquals(48, LatencySketch.bucketOf(67));
+        assertEquals(49, LatencySketch.bucketOf(68));
+        assertEquals(255, LatencySketch.bucketOf(LatencySketch.MAX_TRACKED_MILLIS));
+
+        assertEquals(31, LatencySketch.middleOf(31));
+        assertEquals(32, LatencySketch.middleOf(32)); // 32..33
+        assertEquals(62, LatencySketch.middleOf(47)); // 62..63
+        assertEquals(65, LatencySketch.middleOf(48)); // 64..67
+        assertEquals((31L << 14) + 8191, LatencySketch.middleOf(255));
+    }
+
+    @Test
+    void everyValueFallsInAContiguousBucketWhoseMiddleIsClose() {
+        int previousBucket = -1;
+        long bucketStart = 0;
+        for (long millis = 0; millis <= LatencySketch.MAX_TRACKED_MILLIS; millis++) {
+            int bucket = LatencySketch.bucketOf(millis);
+            if (bucket != previousBucket) {
+                assertEquals(previousBucket + 1, bucket, "bucket after value " + (millis - 1));
+                previousBucket = bucket;
+                bucketStart = millis;
+            }
+            long middle = LatencySketch.middleOf(bucket);
+            assertEquals(bucket, LatencySketch.bucketOf(middle), "middle of bucket " + bucket);
+            assertTrue(middle >= bucketStart, "middle of bucket " + bucket);
+            assertTrue(Math.abs(middle - millis) <= millis / 16, "value " + millis + ", middle " + middle);
+        }
+        assertEquals(255, previousBucket);
+    }
+
+    @Test
+    void quantilesAndMergesUseTheBucketMiddles() {
+        LatencySketch sketch = new LatencySketch();
+        assertEquals(0, sketch.valueAtQuantile(0.5));
+
+        for (int i = 0; i < 98; i++) {
+            sketch.record(10);
+        }
+        sketch.record(64);
+        sketch.record(Long.MAX_VALUE); // Counted as MAX_TRACKED_MILLIS
+        assertEquals(10, sketch.valueAtQuantile(0.5));
+        assertEquals(10, sketch.valueAtQuantile(0.98));
+        assertEquals(65, sketch.valueAtQuantile(0.99));
+        assertEquals(LatencySketch.middleOf(255), sketch.valueAtQuantile(1.0));
+        assertEquals(10, sketch.valueAtQuantile(0.0));
+
+        LatencySketch other = new LatencySketch();
+        for (int i = 0; i < 300; i++) {
+            other.record(-5); // Counted as 0
+        }
+        other.add(sketch);
+        assertEquals(0, other.valueAtQuantile(0.75));
+        assertEquals(10, other.valueAtQuantile(0.76));
+    }
+}
@@ -0,0 +1,128 @@
+package utcn.isp.quizapp.service;
+
+import org.junit.jupiter.api.Test;
+import utcn.isp.quizapp.model.RankedUser;
+import utcn.isp.quizapp.model.User;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardIndexTest {
+
+    private final LeaderboardIndex index = new LeaderboardIndex();
+    private final Map<String, Integer> scores = new HashMap<>();
+
+    private void set(String name, int score) {
+        index.update(name, scores.put(name, score), score);
+    }
+
+    private static List<String> names(List<User> users) {
+        return users.stream().map(user -> user.getName() + ":" + user.getScore()).toList();
+    }
+
+    private static List<String> ranked(List<RankedUser> users) {
+        return users.stream().map(user -> user.getRank() + ":" + user.getName() + ":" + user.getScore()).toList();
+    }
+
+    private void addTiedBoard() {
+        set("amy", 9);
+        set("ben", 7);
+        set("cat", 7);
+        set("dan", 7);
+        set("eve", 4);
+        set("fay", 4);
+        set("gus", 1);
+    }
+
+    @Test
+    void pagesKeepTiedRanksAcrossPageBoundaries() {
+        addTiedBoard();
+
+        assertEquals(List.of("1:amy:9", "2:ben:7", "2:cat:7"), ranked(index.range(0, 3)));
+        assertEquals(List.of("2:dan:7", "5:eve:4", "5:fay:4"), ranked(index.range(3, 3)));
+        assertEquals(List.of("7:gus:1"), ranked(index.range(6, 3)));
+        assertEquals(List.of("2:cat:7", "2:dan:7"), ranked(index.range(2, 2)), "Page starting inside a tie");
+        assertEquals(List.of(), ranked(index.range(7, 3)));
+        assertEquals(List.of(), ranked(index.range(-1, 3)));
+    }
+
+    @Test
+    void aroundShowsNeighboursWithTheirRanks() {
+        addTiedBoard();
+
+        assertEquals(List.of("2:cat:7", "2:dan:7", "5:eve:4", "5:fay:4", "7:gus:1"), ranked(index.around("eve", 4, 2)));
+        assertEquals(List.of("1:amy:9", "2:ben:7"), ranked(index.around("amy", 9, 1)));
+        assertEquals(List.of("2:dan:7"), ranked(index.around("dan", 7, 0)));
+        assertEquals(List.of(), ranked(index.around("zed", 4, 2)));
+        assertEquals(List.of(), ranked(index.around("eve", 5, 2)), "Stale score");
+    }
+
+    @Test
+    void topOrdersByScoreThenName() {
+        set("carol", 5);
+        set("alice", 7);
+        set("bob", 5);
+        set("dave", 2);
+
+        assertEquals(List.of("alice:7", "bob:5", "carol:5"), names(index.top(3)));
+        assertEquals(List.of("alice:7", "bob:5", "carol:5", "dave:2"), names(index.top(10)));
+        assertEquals(List.of(), names(index.top(0)));
+    }
+
+    @Test
+    void tiedUsersShareACompetitionRank() {
+        set("alice", 7);
+        set("bob", 5);
+        set("carol", 5);
+        set("dave", 2);
+
+        assertEquals(1, index.rankOf(7));
+        assertEquals(2, index.rankOf(5));
+        assertEquals(4, index.rankOf(2));
+
+        set("dave", 9);
+        assertEquals(1, index.rankOf(9));
+        assertEquals(2, index.rankOf(7));
+        assertEquals(3, index.rankOf(5));
+        assertEquals(List.of("dave:9", "alice:7", "bob:5", "carol:5"), names(index.all()));
+    }
+
+    @Test
+    void rankMatchesSortedScoresAfterManyMoves() {
+        Random random = new Random(42);
+        for (int step = 0; step < 5_000; step++) {
+            // Wide range, so scores keep appearing and emptying and the counts are rebuilt often
+            set("user" + random.nextInt(200), random.nextInt(400) - 100);
+            if (step % 250 == 0) {
+                assertMatchesSortedScores();
+            }
+        }
+        assertMatchesSortedScores();
+    }
+
+    private void assertMatchesSortedScores() {
+        List<Map.Entry<String, Integer>> sorted = new ArrayList<>(scores.entrySet());
+        sorted.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        assertEquals(sorted.stream().map(entry -> entry.getKey() + ":" + entry.getValue()).toList(), names(index.all()));
+        for (int score : scores.values()) {
+            long higher = scores.values().stream().filter(other -> other > score).count();
+            assertEquals(higher + 1, index.rankOf(score), "rank of score " + score);
+        }
+        int lowest = scores.values().stream().min(Comparator.naturalOrder()).orElse(0);
+        assertEquals(scores.size() + 1, index.rankOf(lowest - 1), "rank below everyone");
+        for (int offset = 0; offset <= scores.size(); offset += 7) {
+            List<RankedUser> page = index.range(offset, 7);
+            assertEquals(Math.min(7, scores.size() - offset), page.size(), "page at " + offset);
+            for (int i = 0; i < page.size(); i++) {
+                assertEquals(sorted.get(offset + i).getKey(), page.get(i).getName());
+                assertEquals(index.rankOf(page.get(i).getScore()), page.get(i).getRank());
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package utcn.isp.quizapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovery of the leaderboard from its snapshot and journal files, as after a crash or restart.
+ */
+class LeaderboardJournalRecoveryTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<Leaderboard> started = new ArrayList<>();
+
+    @AfterEach
+    void stopLeaderboards() {
+        started.forEach(Leaderboard::shutdown);
+    }
+
+    private Path savePath() {
+        return directory.resolve("leaderboard_data.txt");
+    }
+
+    private Path journalPath() {
+        return directory.resolve("leaderboard_data.txt.journal");
+    }
+
+    private Path rotatedJournalPath() {
+        return directory.resolve("leaderboard_data.txt.journal.old");
+    }
+
+    private Leaderboard start() {
+        Leaderboard leaderboard = new Leaderboard("none", savePath().toString(), true, 3600, 100, 10,
+                new SimpleMeterRegistry());
+        leaderboard.initializeLeaderboard();
+        return leaderboard;
+    }
+
+    private Leaderboard startManaged() {
+        Leaderboard leaderboard = start();
+        started.add(leaderboard);
+        return leaderboard;
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private static void awaitJournalled(Leaderboard leaderboard, long records) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (leaderboard.getJournalStats().getRecordsWritten() < records) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Journal writer did not write " + records + " records");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static int scoreOf(Leaderboard leaderboard, String userName) {
+        return leaderboard.getAllScoresSorted().stream()
+                .filter(user -> user.getName().equals(userName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(userName + " is not on the leaderboard"))
+                .getScore();
+    }
+
+    @Test
+    void replaysJournalOverSnapshot() throws IOException {
+        write(savePath(), "alice:3\nbob:9\n");
+        write(journalPath(), "alice:7\nbob:4\ncarol:2\n");
+
+        Leaderboard leaderboard = startManaged();
+
+        assertEquals(7, scoreOf(leaderboard, "alice"));
+        assertEquals(9, scoreOf(leaderboard, "bob"), "A lower journalled score must not replace a better one");
+        assertEquals(2, scoreOf(leaderboard, "carol"));
+    }
+
+    @Test
+    void scoresSurviveACrashBeforeCompaction() throws Exception {
+        Leaderboard crashed = start(); // Never shut down, so nothing is compacted into the snapshot
+        crashed.addScore("dave", 8);
+        awaitJournalled(crashed, 1);
+        assertFalse(Files.exists(savePath()) && Files.readString(savePath()).contains("dave"));
+
+        Leaderboard restarted = startManaged();
+
+        assertEquals(8, scoreOf(restarted, "dave"));
+    }
+
+    @Test
+    void recoversLeftoverRotatedJournal() throws IOException {
+        // A compaction rotated the journal but died before writing the snapshot
+        write(savePath(), "erin:1\n");
+        write(rotatedJournalPath(), "erin:5\nfrank:3\n");
+        write(journalPath(), "grace:2\n");
+
+        Leaderboard leaderboard = start();
+        assertEquals(5, scoreOf(leaderboard, "erin"));
+        assertEquals(3, scoreOf(leaderboard, "frank"));
+        assertEquals(2, scoreOf(leaderboard, "grace"));
+
+        leaderboard.shutdown(); // Compacts: the snapshot now covers the rotated journal, which is removed
+        String snapshot = Files.readString(savePath());
+        assertTrue(snapshot.contains("erin:5") && snapshot.contains("frank:3") && snapshot.contains("grace:2"), snapshot);
+        assertFalse(Files.exists(rotatedJournalPath()));
+    }
+
+    @Test
+    void compactionRotatesJournalIntoSnapshot() throws Exception {
+        Leaderboard leaderboard = start();
+        leaderboard.addScore("heidi", 6);
+        leaderboard.addScore("ivan", 4);
+        awaitJournalled(leaderboard, 2);
+        assertTrue(Files.size(journalPath()) > 0);
+
+        leaderboard.shutdown();
+
+        String snapshot = Files.readString(savePath());
+        assertTrue(snapshot.contains("heidi:6") && snapshot.contains("ivan:4"), snapshot);
+        assertEquals(0, Files.size(journalPath()), "Compacted records must not stay in the journal");
+        assertFalse(Files.exists(rotatedJournalPath()));
+
+        Leaderboard restarted = startManaged();
+        assertEquals(6, scoreOf(restarted, "heidi"));
+        assertEquals(4, scoreOf(restarted, "ivan"));
+    }
+}
@@ -0,0 +1,98 @@
+package utcn.isp.quizapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LeaderboardJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private LeaderboardJournal journal(int queueCapacity) {
+        return new LeaderboardJournal(directory.resolve("leaderboard_data.txt").toString(), queueCapacity, 10,
+                new SimpleMeterRegistry().timer("batch"));
+    }
+
+    private static void awaitWritten(LeaderboardJournal journal, long records) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journal.getStats().getRecordsWritten() < records) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Journal writer did not write " + records + " records");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void keepsWritingAfterAFailedCompaction() throws Exception {
+        LeaderboardJournal journal = journal(100);
+        journal.open();
+        try {
+            journal.append("alice", 3);
+            awaitWritten(journal, 1);
+            Files.delete(journal.getJournalPath()); // The rotation's move now fails
+
+            assertThrows(IOException.class, () -> journal.compact(Map.of("alice", 3)));
+
+            journal.append("bob", 5);
+            awaitWritten(journal, 2);
+            assertEquals(0, journal.getStats().getFailedBatches());
+            assertTrue(Files.readString(journal.getJournalPath(), StandardCharsets.UTF_8).contains("bob:5"));
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void dropsRecordInsteadOfWaitingForeverWhenWriterIsStuck() throws IOException {
+        LeaderboardJournal journal = journal(1); // Not opened: nothing drains the queue
+        journal.append("carol", 1);
+
+        long start = System.nanoTime();
+        journal.append("dave", 2);
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(1, journal.getStats().getDroppedRecords());
+        assertEquals(1, journal.getStats().getProducerWaits());
+        assertTrue(waitedMillis < 5000, "Waited " + waitedMillis + " ms");
+    }
+
+    @Test
+    void compactionSnapshotsDroppedRecordsEvenWithAnEmptyJournal() throws Exception {
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.isWritable(full), "Needs /dev/full to make every journal write fail");
+        LeaderboardJournal journal = journal(1);
+        Files.createSymbolicLink(journal.getJournalPath(), full); // Opens fine, every write fails with "no space"
+        journal.open();
+        try {
+            // The writer keeps retrying its first batch, so the queue fills up and a record is dropped
+            Map<String, Integer> scores = new HashMap<>();
+            for (int score = 1; journal.getStats().getDroppedRecords() == 0; score++) {
+                assertTrue(score <= 5, "No record was dropped");
+                scores.put("user" + score, score);
+                journal.append("user" + score, score);
+            }
+            assertEquals(0, journal.getStats().getRecordsWritten());
+
+            journal.compact(scores);
+
+            String snapshot = Files.readString(journal.getSnapshotPath(), StandardCharsets.UTF_8);
+            scores.forEach((user, score) -> assertTrue(snapshot.contains(user + ":" + score), snapshot));
+        } finally {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package utcn.isp.quizapp.service;
+
+import org.junit.jupiter.api.Test;
+import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.QuestionPerformance;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuestionAnalyticsServiceTest {
+
+    // At most 4 questions, listed from 2 answers on, 2 per list
+    private final QuestionAnalyticsService analytics = new QuestionAnalyticsService(4, 2, 2);
+
+    private static Question question(String text) {
+        return new Question(text, List.of("A", "B", "C", "D"), 0);
+    }
+
+    private void answer(String text, boolean correct, long... answerMillis) {
+        for (long millis : answerMillis) {
+            analytics.recordAnswer(question(text), correct, millis);
+        }
+    }
+
+    private static List<String> texts(List<QuestionPerformance> performance) {
+        return performance.stream().map(QuestionPerformance::getQuestionText).toList();
+    }
+
+    private void recordClassroom() {
+        answer("Half?", true, 1_000);
+        answer("Half?", false, 3_000);
+        answer("Nobody?", false, 5_000, 6_000, 7_000);
+        answer("Everybody?", true, 400, 500, 600, 700);
+        answer("Once?", false, 60_000);       // Below the minimum number of answers
+        answer("Untracked?", true, 100, 100); // A fifth question, over the limit
+    }
+
+    @Test
+    void countsAnswersPerQuestion() {
+        recordClassroom();
+        Map<String, QuestionPerformance> byText = analytics.getQuestionPerformance().stream()
+                .collect(Collectors.toMap(QuestionPerformance::getQuestionText, Function.identity()));
+
+        assertEquals(4, analytics.getTrackedQuestionCount());
+        assertEquals(2, analytics.getUntrackedAnswerCount());
+        QuestionPerformance half = byText.get("Half?");
+        assertEquals(2, half.getAttempts());
+        assertEquals(1, half.getCorrectAnswers());
+        assertEquals(50.0, half.getCorrectPercentage(), 1e-9);
+        assertEquals(2_000, half.getAverageAnswerMillis());
+        assertEquals(3_000, half.getMaxAnswerMillis());
+        assertEquals(Question.DEFAULT_CATEGORY, half.getCategory());
+        assertEquals(6_000, byText.get("Nobody?").getAverageAnswerMillis());
+    }
+
+    @Test
+    void listsRankQuestionsWithEnoughAnswers() {
+        recordClassroom();
+        List<QuestionPerformance> performance = analytics.getQuestionPerformance();
+
+        assertEquals(List.of("Nobody?", "Half?"), texts(analytics.getHardestQuestions(performance)));
+        assertEquals(List.of("Everybody?", "Half?"), texts(analytics.getEasiestQuestions(performance)));
+        assertEquals(List.of("Nobody?", "Half?"), texts(analytics.getSlowestQuestions(performance)));
+    }
+
+    @Test
+    void tiedCorrectRatesPutTheMostAnsweredFirst() {
+        answer("Asked twice?", false, 1_000, 1_000);
+        answer("Asked thrice?", false, 1_000, 1_000, 1_000);
+
+        assertEquals(List.of("Asked thrice?", "Asked twice?"),
+                texts(analytics.getHardestQuestions(analytics.getQuestionPerformance())));
+    }
+
+    @Test
+    void overallPercentilesMergeEveryQuestion() {
+        assertArrayEquals(new long[]{0, 0, 0}, analytics.getOverallAnswerTimePercentiles());
+
+        for (int i = 0; i < 9; i++) {
+            answer("Fast?", true, 10);
+        }
+        answer("Slow?", true, 20);
+
+        assertArrayEquals(new long[]{10, 10, 20}, analytics.getOverallAnswerTimePercentiles());
+    }
+}
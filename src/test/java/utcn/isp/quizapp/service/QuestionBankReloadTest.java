@@ -0,0 +1,100 @@
+package utcn.isp.quizapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class QuestionBankReloadTest {
+
+    @TempDir
+    Path directory;
+
+    private QuestionBank bank;
+
+    @AfterEach
+    void stopWatching() {
+        if (bank != null) {
+            bank.stopWatching();
+        }
+    }
+
+    private static String questions(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append("Question ").append(i).append("?\nA").append(i).append("\nB\nC\nD\nA\n\n");
+        }
+        return text.toString();
+    }
+
+    // Replaces the file in one step, so the watcher never sees it half written
+    private void replace(Path file, byte[] content) throws IOException {
+        Path temp = directory.resolve("incoming.tmp");
+        Files.write(temp, content);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path truncatedCompiledBank() throws IOException {
+        Path compiled = directory.resolve("full.qbank");
+        CompiledQuestionBank.compile(QuestionLoader.loadQuestionsFromFile(writeText("full.txt", questions(20))), compiled);
+        byte[] content = Files.readAllBytes(compiled);
+        Path truncated = directory.resolve("truncated.qbank");
+        Files.write(truncated, Arrays.copyOf(content, content.length - 100));
+        return truncated;
+    }
+
+    private Path writeText(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static void await(BooleanSupplier condition, String description) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out waiting until " + description);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void rejectsTruncatedCompiledBankAndKeepsCurrentQuestions() throws IOException {
+        Path external = writeText("questions.txt", questions(3));
+        bank = new QuestionBank("missing.txt", external.toString(), new SimpleMeterRegistry());
+        bank.loadQuestions();
+        assertEquals(3, bank.size());
+
+        replace(external, Files.readAllBytes(truncatedCompiledBank()));
+
+        assertFalse(bank.reloadFromExternalFile());
+        assertFalse(bank.isLastLoadApplied(), "A load that failed must not be reported as applied");
+        assertEquals(3, bank.size());
+    }
+
+    @Test
+    void watcherSurvivesACorruptFile() throws Exception {
+        Path external = writeText("questions.txt", questions(3));
+        bank = new QuestionBank("missing.txt", external.toString(), new SimpleMeterRegistry());
+        bank.loadQuestions();
+
+        replace(external, Files.readAllBytes(truncatedCompiledBank()));
+        await(() -> !bank.isLastLoadApplied(), "the corrupt file is rejected");
+        assertEquals(3, bank.size());
+
+        replace(external, questions(5).getBytes(StandardCharsets.UTF_8));
+        await(() -> bank.size() == 5 && bank.isLastLoadApplied(), "the next valid file is loaded");
+    }
+}
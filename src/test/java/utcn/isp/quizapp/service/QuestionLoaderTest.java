@@ -0,0 +1,142 @@
+package utcn.isp.quizapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utcn.isp.quizapp.model.Difficulty;
+import utcn.isp.quizapp.model.Question;
+import utcn.isp.quizapp.model.QuestionLoadReport;
+import utcn.isp.quizapp.model.QuestionLoadReport.Issue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    private QuestionLoader.LoadResult load(String content) throws IOException {
+        Path file = directory.resolve("questions.txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return QuestionLoader.loadFromFile(file);
+    }
+
+    @Test
+    void readsMetadataLineOnlyWhenItHasKeyValuePairs() throws IOException {
+        QuestionLoader.LoadResult result = load("""
+                @category=Java; difficulty=hard; tags=annotations, compiler
+                Which annotation marks an overriding method?
+                @Override
+                @Deprecated
+                @Inherited
+                @Target
+                A
+
+                @Override is checked by whom?
+                The compiler
+                The JVM
+                The garbage collector
+                Nobody
+                A
+                """);
+
+        assertEquals(0, result.report().getRejectedCount(), result.report().getRejectedBlocks().toString());
+        List<Question> questions = result.questions();
+        assertEquals(2, questions.size());
+
+        Question tagged = questions.get(0);
+        assertEquals("Which annotation marks an overriding method?", tagged.getQuestionText());
+        assertEquals("Java", tagged.getCategory());
+        assertEquals(Difficulty.HARD, tagged.getDifficulty());
+        assertEquals(List.of("annotations", "compiler"), tagged.getTags());
+
+        Question untagged = questions.get(1);
+        assertEquals("@Override is checked by whom?", untagged.getQuestionText());
+        assertEquals(List.of(), untagged.getTags());
+    }
+
+    @Test
+    void rejectsTaggedBlockWithMissingLine() throws IOException {
+        QuestionLoader.LoadResult result = load("""
+                @category=Java
+                Which keyword declares a constant?
+                final
+                const
+                static
+                A
+                """);
+
+        assertEquals(0, result.questions().size());
+        assertEquals(1, result.report().getRejectedCount());
+        assertEquals(1, result.report().getRejectedBlocks().get(0).getLineNumber());
+    }
+
+    @Test
+    void untaggedQuestionKeepsDefaultCategory() throws IOException {
+        Question question = load("@FunctionalInterface requires how many abstract methods?\n0\n1\n2\nAny\nB\n")
+                .questions().get(0);
+
+        assertEquals("@FunctionalInterface requires how many abstract methods?", question.getQuestionText());
+        assertEquals(Question.DEFAULT_CATEGORY, question.getCategory());
+        assertEquals(Difficulty.MEDIUM, question.getDifficulty());
+    }
+
+    @Test
+    void largeFileParsedInChunksReportsTheSameLinesAsOnePass() throws IOException {
+        StringBuilder text = new StringBuilder();
+        int line = 1;
+        List<Integer> badBlockLines = new ArrayList<>();
+        List<Integer> duplicateLines = new ArrayList<>();
+        for (int i = 0; i < 12_000; i++) {
+            String padding = "x".repeat(80); // About 1.3 MB in total, so several chunks
+            if (i % 1_000 == 999) {
+                badBlockLines.add(line);
+                text.append("Broken question ").append(i).append("?\nA\nB\nC\n\n"); // One option short
+                line += 5;
+            } else {
+                // Every 1000 questions, repeat the first one (in a different chunk)
+                int textId = (i % 1_000 == 500) ? 0 : i;
+                if (textId != i) {
+                    duplicateLines.add(line);
+                }
+                text.append("@category=Chunk").append(i % 3).append('\n')
+                        .append("Question ").append(textId).append("?\n")
+                        .append(padding).append(" A\nB\nC\nD\nC\n\n");
+                line += 8;
+            }
+            if (i % 777 == 0) {
+                text.append("\n\n"); // Extra separators must not shift the line numbers
+                line += 2;
+            }
+        }
+        QuestionLoader.LoadResult chunked = load(text.toString());
+        List<Question> streamed = new ArrayList<>();
+        QuestionLoadReport onePass = QuestionLoader.streamQuestions(
+                new BufferedReader(new StringReader(text.toString())), "test", streamed::add);
+
+        QuestionLoadReport report = chunked.report();
+        assertTrue(report.getChunks() > 1, "chunks: " + report.getChunks());
+        assertEquals(12_000 - 12, chunked.questions().size());
+        assertEquals(badBlockLines, report.getRejectedBlocks().stream().map(Issue::getLineNumber).toList());
+        assertEquals(duplicateLines, report.getDuplicateQuestions().stream().map(Issue::getLineNumber).toList());
+        assertEquals("Duplicate of the question at line 1", report.getDuplicateQuestions().get(0).getMessage());
+        assertEquals(onePass.getBlocksRead(), report.getBlocksRead());
+        assertEquals(issues(onePass.getRejectedBlocks()), issues(report.getRejectedBlocks()));
+        assertEquals(issues(onePass.getDuplicateQuestions()), issues(report.getDuplicateQuestions()));
+        assertEquals(streamed.stream().map(Question::getQuestionText).toList(),
+                chunked.questions().stream().map(Question::getQuestionText).toList());
+    }
+
+    private static List<String> issues(List<Issue> issues) {
+        return issues.stream().map(issue -> issue.getLineNumber() + ": " + issue.getMessage()).toList();
+    }
+}
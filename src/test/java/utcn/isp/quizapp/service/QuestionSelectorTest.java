@@ -0,0 +1,72 @@
+package utcn.isp.quizapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionSelectorTest {
+
+    private static void assertDistinctIndexes(int[] selected, int bankSize, int expectedCount) {
+        assertEquals(expectedCount, selected.length);
+        boolean[] seen = new boolean[bankSize];
+        for (int index : selected) {
+            assertTrue(index >= 0 && index < bankSize, "index " + index + " of " + bankSize);
+            assertTrue(!seen[index], "index " + index + " drawn twice in " + Arrays.toString(selected));
+            seen[index] = true;
+        }
+    }
+
+    @Test
+    void sparseAndDenseDrawsAreDistinctAndComplete() {
+        Random random = new Random(7);
+        // Sparse: few draws from a large bank; dense: many draws, or most of a small bank
+        int[][] cases = {{100_000, 10}, {1_000, 64}, {1_000, 65}, {40, 10}, {40, 11}, {12, 12}, {5, 1}, {1, 1}};
+        for (int[] sizeAndCount : cases) {
+            for (int run = 0; run < 200; run++) {
+                assertDistinctIndexes(QuestionSelector.selectIndexes(sizeAndCount[0], sizeAndCount[1], random),
+                        sizeAndCount[0], sizeAndCount[1]);
+            }
+        }
+    }
+
+    @Test
+    void drawIsCappedByTheBank() {
+        Random random = new Random(7);
+        assertDistinctIndexes(QuestionSelector.selectIndexes(8, 20, random), 8, 8);
+        assertEquals(0, QuestionSelector.selectIndexes(0, 10, random).length);
+        assertEquals(0, QuestionSelector.selectIndexes(10, -1, random).length);
+    }
+
+    @Test
+    void sparseDrawReachesEveryIndexEvenly() {
+        Random random = new Random(11);
+        int bankSize = 50;
+        int[] hits = new int[bankSize];
+        int runs = 20_000;
+        for (int run = 0; run < runs; run++) {
+            for (int index : QuestionSelector.selectIndexes(bankSize, 5, random)) { // 5 * 4 <= 50: sparse
+                hits[index]++;
+            }
+        }
+        double expected = runs * 5.0 / bankSize;
+        for (int index = 0; index < bankSize; index++) {
+            assertEquals(expected, hits[index], expected * 0.1, "hits of index " + index);
+        }
+    }
+
+    @Test
+    void selectFromMapsDrawsIntoThePool() {
+        int[] pool = {3, 8, 21, 34, 55};
+        int[] selected = QuestionSelector.selectFrom(pool, 100, 5, new Random(3));
+        int[] sorted = selected.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(pool, sorted);
+
+        assertDistinctIndexes(QuestionSelector.selectFrom(null, 100, 10, new Random(3)), 100, 10);
+    }
+}
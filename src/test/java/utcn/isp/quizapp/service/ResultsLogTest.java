@@ -0,0 +1,124 @@
+package utcn.isp.quizapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utcn.isp.quizapp.model.CompletedQuiz;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultsLogTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 14);
+
+    @TempDir
+    Path directory;
+
+    private Path segment() {
+        return directory.resolve("results-" + DAY + ".csv");
+    }
+
+    private Path sidecar() {
+        return directory.resolve("results-" + DAY + ".summary");
+    }
+
+    private List<CompletedQuiz> streamDay(ResultsLog log) throws IOException {
+        List<CompletedQuiz> quizzes = new ArrayList<>();
+        log.streamDay(DAY, quizzes::add);
+        return quizzes;
+    }
+
+    @Test
+    void readsUntaggedAndTaggedLinesAndSkipsTornOnes() throws IOException {
+        Files.writeString(segment(), String.join("\n",
+                "2024-03-14T09:00:01,7,10,9,120,Old, with comma",
+                "v2,2024-03-14T09:05:00,8,10,10,95,1200,3400,5100,New, with comma",
+                "v2,2024-03-14T09:06:00,8,10",
+                "2024-03-14T09:07:00,not-a-score,10,9,120,Broken",
+                "v2,2024-03-14T09:08:00,5,10,6,80,-1,-1,-1,No answer times",
+                ""), StandardCharsets.UTF_8);
+        ResultsLog log = new ResultsLog(directory.toString());
+
+        List<CompletedQuiz> quizzes = streamDay(log);
+
+        assertEquals(3, quizzes.size());
+        CompletedQuiz old = quizzes.get(0);
+        assertEquals("Old, with comma", old.getUserName());
+        assertEquals(LocalDateTime.of(2024, 3, 14, 9, 0, 1), old.getCompletionTime());
+        assertEquals(7, old.getScore());
+        assertEquals(9, old.getAnsweredQuestions());
+        assertEquals(120, old.getDurationSeconds());
+        assertFalse(old.hasAnswerTimes());
+
+        CompletedQuiz tagged = quizzes.get(1);
+        assertEquals("New, with comma", tagged.getUserName());
+        assertEquals(95, tagged.getDurationSeconds());
+        assertTrue(tagged.hasAnswerTimes());
+        assertEquals(1200, tagged.getMedianAnswerMillis());
+        assertEquals(3400, tagged.getP90AnswerMillis());
+        assertEquals(5100, tagged.getP99AnswerMillis());
+
+        assertFalse(quizzes.get(2).hasAnswerTimes());
+    }
+
+    @Test
+    void appendedResultsReadBackUnchanged() throws IOException {
+        CompletedQuiz written = new CompletedQuiz("line\nbreak", 6, 10, 7, 64, LocalDateTime.of(DAY, LocalTime.NOON),
+                900, 2100, 4000);
+        try (ResultsLog log = new ResultsLog(directory.toString())) {
+            log.append(written);
+        }
+
+        CompletedQuiz read = streamDay(new ResultsLog(directory.toString())).get(0);
+
+        assertEquals("line break", read.getUserName());
+        assertEquals(written.getCompletionTime(), read.getCompletionTime());
+        assertEquals(written.getScore(), read.getScore());
+        assertEquals(written.getTotalQuestions(), read.getTotalQuestions());
+        assertEquals(written.getP90AnswerMillis(), read.getP90AnswerMillis());
+        assertEquals(List.of(DAY), new ResultsLog(directory.toString()).listDays());
+    }
+
+    @Test
+    void summarySidecarIsRebuiltWhenTheSegmentChangesOrItIsDamaged() throws IOException {
+        Files.writeString(segment(), "v2,2024-03-14T09:05:00,8,10,10,90,-1,-1,-1,first\n", StandardCharsets.UTF_8);
+        ResultsLog log = new ResultsLog(directory.toString());
+
+        assertEquals(1, log.summaryFor(DAY).count);
+        assertTrue(Files.exists(sidecar()));
+
+        // An up-to-date sidecar is trusted without reading the segment
+        Files.writeString(sidecar(), "42,420,400,4200.0,4000", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(sidecar(), FileTime.fromMillis(Files.getLastModifiedTime(segment()).toMillis() + 1000));
+        assertEquals(42, log.summaryFor(DAY).count);
+
+        // A segment written after its sidecar makes the sidecar stale
+        Files.writeString(segment(), "v2,2024-03-14T09:06:00,4,10,5,30,-1,-1,-1,second\n", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(segment(), FileTime.fromMillis(Files.getLastModifiedTime(sidecar()).toMillis() + 1000));
+        ResultsLog.Summary rebuilt = log.summaryFor(DAY);
+        assertEquals(2, rebuilt.count);
+        assertEquals(20, rebuilt.totalQuestions);
+        assertEquals(15, rebuilt.totalAnswered);
+        assertEquals(120.0, rebuilt.totalAccuracyPercentage, 1e-9);
+        assertEquals(120, rebuilt.totalDurationSeconds);
+
+        Files.writeString(sidecar(), "garbage", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(sidecar(), FileTime.fromMillis(Files.getLastModifiedTime(segment()).toMillis() + 1000));
+        assertEquals(2, log.summaryFor(DAY).count);
+        assertEquals("2,20,15,120.0,120", Files.readString(sidecar(), StandardCharsets.UTF_8));
+    }
+}